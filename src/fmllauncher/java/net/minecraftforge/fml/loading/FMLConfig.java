@@ -44,6 +44,8 @@ public class FMLConfig
         configSpec.define("maxThreads", -1);
         configSpec.define("versionCheck", Boolean.TRUE);
         configSpec.define("defaultConfigPath",  "defaultconfigs");
+        configSpec.define("parallelModScanning", Boolean.TRUE);
+        configSpec.define("modScanCache", Boolean.TRUE);
     }
 
     private CommentedFileConfig configData;
@@ -80,6 +82,8 @@ public class FMLConfig
         LOGGER.trace(CORE, "Max threads for mod loading computed at {}", FMLConfig::loadingThreadCount);
         LOGGER.trace(CORE, "Version check is {}", FMLConfig::runVersionCheck);
         LOGGER.trace(CORE, "Default config paths at {}", FMLConfig::defaultConfigPath);
+        LOGGER.trace(CORE, "Parallel mod scanning is {}", FMLConfig::parallelModScanning);
+        LOGGER.trace(CORE, "Mod scan cache is {}", FMLConfig::modScanCacheEnabled);
         FMLPaths.getOrCreateGameRelativePath(Paths.get(FMLConfig.defaultConfigPath()), "default config directory");
     }
 
@@ -100,4 +104,12 @@ public class FMLConfig
     public static String defaultConfigPath() {
         return INSTANCE.configData.<String>getOptional("defaultConfigPath").orElse("defaultconfigs");
     }
+
+    public static boolean parallelModScanning() {
+        return INSTANCE.configData.<Boolean>getOptional("parallelModScanning").orElse(Boolean.TRUE);
+    }
+
+    public static boolean modScanCacheEnabled() {
+        return INSTANCE.configData.<Boolean>getOptional("modScanCache").orElse(Boolean.TRUE);
+    }
 }
@@ -20,12 +20,16 @@
 package net.minecraftforge.fml.loading.moddiscovery;
 
 import net.minecraftforge.forgespi.language.ModFileScanData;
+import net.minecraftforge.fml.loading.FMLConfig;
+import net.minecraftforge.fml.loading.FMLPaths;
 import net.minecraftforge.fml.loading.LoadingModList;
+import net.minecraftforge.fml.loading.progress.StartupMessageManager;
 import net.minecraftforge.forgespi.locating.IModFile;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -38,7 +42,9 @@ import static net.minecraftforge.fml.loading.LogMarkers.SCAN;
 public class BackgroundScanHandler
 {
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final String SCAN_CACHE_DIR = ".fmlcache/scan";
     private final ExecutorService modContentScanner;
+    private final ModFileScanCache scanCache;
     private final List<ModFile> pendingFiles;
     private final List<ModFile> scannedFiles;
     private final List<ModFile> allFiles;
@@ -47,13 +53,16 @@ public class BackgroundScanHandler
 
     public BackgroundScanHandler(final Map<IModFile.Type, List<ModFile>> modFiles) {
         this.modFiles = modFiles;
-        modContentScanner = Executors.newSingleThreadExecutor(r -> {
+        final int threads = FMLConfig.parallelModScanning() ? FMLConfig.loadingThreadCount() : 1;
+        LOGGER.debug(SCAN, "Scanning mod files with {} threads", threads);
+        modContentScanner = Executors.newFixedThreadPool(threads, r -> {
             final Thread thread = Executors.defaultThreadFactory().newThread(r);
             thread.setDaemon(true);
             return thread;
         });
-        scannedFiles = new ArrayList<>();
-        pendingFiles = new ArrayList<>();
+        scanCache = new ModFileScanCache(FMLConfig.modScanCacheEnabled() ? FMLPaths.GAMEDIR.get().resolve(SCAN_CACHE_DIR) : null);
+        scannedFiles = Collections.synchronizedList(new ArrayList<>());
+        pendingFiles = Collections.synchronizedList(new ArrayList<>());
         allFiles = new ArrayList<>();
     }
 
@@ -67,7 +76,7 @@ public class BackgroundScanHandler
         }
         allFiles.add(file);
         pendingFiles.add(file);
-        final CompletableFuture<ModFileScanData> future = CompletableFuture.supplyAsync(file::compileContent, modContentScanner)
+        final CompletableFuture<ModFileScanData> future = CompletableFuture.supplyAsync(() -> file.compileContent(scanCache), modContentScanner)
                 .whenComplete(file::setScanResult)
                 .whenComplete((r,t)-> this.addCompletedFile(file,r,t));
         file.setFutureScanResult(future);
@@ -100,6 +109,8 @@ public class BackgroundScanHandler
             } catch (InterruptedException e) {
                 Thread.interrupted();
             }
-        } while (!modContentScanner.isShutdown());
+        } while (!modContentScanner.isTerminated());
+        LOGGER.debug(SCAN, "Mod scan cache had {} hits and {} misses", scanCache.getHits(), scanCache.getMisses());
+        StartupMessageManager.modLoaderConsumer().ifPresent(c->c.accept("Mod scan cache: "+scanCache.getHits()+" hits, "+scanCache.getMisses()+" misses"));
     }
 }
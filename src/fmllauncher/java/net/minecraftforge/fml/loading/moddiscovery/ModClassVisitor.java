@@ -77,10 +77,25 @@ public class ModClassVisitor extends ClassVisitor
 
     public void buildData(final Set<ModFileScanData.ClassData> classes, final Set<ModFileScanData.AnnotationData> annotations) {
         classes.add(new ModFileScanData.ClassData(this.asmType, this.asmSuperType, this.interfaces));
-        final List<ModFileScanData.AnnotationData> collect = this.annotations.stream().
+        annotations.addAll(buildAnnotationData());
+    }
+
+    List<ModFileScanData.AnnotationData> buildAnnotationData() {
+        return this.annotations.stream().
                 filter(ma->ModFileScanData.interestingAnnotations().test(ma.getASMType())).
                 map(a -> ModAnnotation.fromModAnnotation(this.asmType, a)).collect(Collectors.toList());
-        annotations.addAll(collect);
+    }
+
+    Type getASMType() {
+        return asmType;
+    }
+
+    Type getASMSuperType() {
+        return asmSuperType;
+    }
+
+    Set<Type> getInterfaces() {
+        return interfaces;
     }
 
 }
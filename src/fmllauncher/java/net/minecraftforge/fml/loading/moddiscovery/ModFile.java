@@ -130,6 +130,13 @@ public class ModFile implements IModFile {
         return new Scanner(this).scan();
     }
 
+    /**
+     * As {@link #compileContent()}, but reuses a previous result from the cache when this file is unchanged
+     */
+    public ModFileScanData compileContent(final ModFileScanCache cache) {
+        return new Scanner(this).scan(cache);
+    }
+
     public void scanFile(Consumer<Path> pathConsumer) {
         locator.scanFile(this, pathConsumer);
     }
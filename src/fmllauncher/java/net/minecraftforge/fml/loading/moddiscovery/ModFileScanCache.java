@@ -0,0 +1,327 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.loading.moddiscovery;
+
+import com.google.common.hash.Hashing;
+import net.minecraftforge.fml.loading.FileUtils;
+import net.minecraftforge.forgespi.language.ModFileScanData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.Type;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.minecraftforge.fml.loading.LogMarkers.SCAN;
+
+/**
+ * Persistent on-disk cache of the class and annotation data harvested by the {@link Scanner}.
+ *
+ * Entries are keyed on the jar's path, size and last modified time, so an unchanged jar can be
+ * restored without being opened. Exploded (directory) mod files are never cached.
+ */
+public class ModFileScanCache
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    // Bump whenever the scanner or the format below changes, so stale entries are discarded
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path cacheDir;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public ModFileScanCache(final Path cacheDir)
+    {
+        this.cacheDir = cacheDir;
+    }
+
+    public int getHits()
+    {
+        return hits.get();
+    }
+
+    public int getMisses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * Restore a previous scan of the file into the result.
+     *
+     * @return true if the cache held a valid entry for the file in its current state
+     */
+    public boolean load(final ModFile file, final ModFileScanData result)
+    {
+        final Path jar = file.getFilePath();
+        if (cacheDir == null || !Files.isRegularFile(jar)) return false;
+        final Path entry = entryFor(jar);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry))))
+        {
+            final BasicFileAttributes attrs = Files.readAttributes(jar, BasicFileAttributes.class);
+            if (in.readInt() != FORMAT_VERSION ||
+                !jar.toAbsolutePath().toString().equals(in.readUTF()) ||
+                in.readLong() != attrs.size() ||
+                in.readLong() != attrs.lastModifiedTime().toMillis())
+            {
+                misses.incrementAndGet();
+                return false;
+            }
+            final List<ModFileScanData.ClassData> classes = new ArrayList<>();
+            final List<ModFileScanData.AnnotationData> annotations = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--)
+            {
+                final Type clazz = Type.getObjectType(in.readUTF());
+                final Type parent = in.readBoolean() ? Type.getObjectType(in.readUTF()) : null;
+                final Set<Type> interfaces = new HashSet<>();
+                for (int j = in.readInt(); j > 0; j--)
+                    interfaces.add(Type.getObjectType(in.readUTF()));
+                classes.add(new ModFileScanData.ClassData(clazz, parent, interfaces));
+                for (int j = in.readInt(); j > 0; j--)
+                {
+                    final Type annotationType = Type.getType(in.readUTF());
+                    final ElementType targetType = ElementType.valueOf(in.readUTF());
+                    final String member = in.readUTF();
+                    annotations.add(new ModFileScanData.AnnotationData(annotationType, targetType, clazz, member, readMap(in)));
+                }
+            }
+            result.getClasses().addAll(classes);
+            result.getAnnotations().addAll(annotations);
+            hits.incrementAndGet();
+            LOGGER.debug(SCAN, "Restored scan data for {} from cache", file);
+            return true;
+        }
+        catch (NoSuchFileException e)
+        {
+            misses.incrementAndGet();
+            return false;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOGGER.debug(SCAN, "Discarding unreadable scan cache entry {} for {}", entry, file, e);
+            misses.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Store the visited classes of a freshly scanned file. Failures are logged and otherwise ignored,
+     * the file will simply be scanned again next time.
+     */
+    public void store(final ModFile file, final List<ModClassVisitor> visitors)
+    {
+        final Path jar = file.getFilePath();
+        if (cacheDir == null || !Files.isRegularFile(jar)) return;
+        final Path entry = entryFor(jar);
+        Path tmp = null;
+        try
+        {
+            FileUtils.getOrCreateDirectory(cacheDir, "mod scan cache");
+            final BasicFileAttributes attrs = Files.readAttributes(jar, BasicFileAttributes.class);
+            tmp = Files.createTempFile(cacheDir, entry.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+            {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(jar.toAbsolutePath().toString());
+                out.writeLong(attrs.size());
+                out.writeLong(attrs.lastModifiedTime().toMillis());
+                out.writeInt(visitors.size());
+                for (ModClassVisitor mcv : visitors)
+                {
+                    out.writeUTF(mcv.getASMType().getInternalName());
+                    out.writeBoolean(mcv.getASMSuperType() != null);
+                    if (mcv.getASMSuperType() != null)
+                        out.writeUTF(mcv.getASMSuperType().getInternalName());
+                    out.writeInt(mcv.getInterfaces().size());
+                    for (Type itf : mcv.getInterfaces())
+                        out.writeUTF(itf.getInternalName());
+                    final List<ModFileScanData.AnnotationData> annotations = mcv.buildAnnotationData();
+                    out.writeInt(annotations.size());
+                    for (ModFileScanData.AnnotationData ad : annotations)
+                    {
+                        out.writeUTF(ad.getAnnotationType().getDescriptor());
+                        out.writeUTF(ad.getTargetType().name());
+                        out.writeUTF(ad.getMemberName());
+                        writeMap(out, ad.getAnnotationData());
+                    }
+                }
+            }
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOGGER.debug(SCAN, "Unable to cache scan data for {}", file, e);
+            if (tmp != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(tmp);
+                }
+                catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private Path entryFor(final Path jar)
+    {
+        final String name = Hashing.sha1().hashString(jar.toAbsolutePath().toString(), StandardCharsets.UTF_8).toString();
+        return cacheDir.resolve(name + ".bin");
+    }
+
+    private static void writeMap(final DataOutputStream out, final Map<String, Object> map) throws IOException
+    {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Object> e : map.entrySet())
+        {
+            out.writeUTF(e.getKey());
+            writeValue(out, e.getValue());
+        }
+    }
+
+    private static Map<String, Object> readMap(final DataInputStream in) throws IOException
+    {
+        final int size = in.readInt();
+        final Map<String, Object> map = new HashMap<>(size);
+        for (int i = 0; i < size; i++)
+            map.put(in.readUTF(), readValue(in));
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeValue(final DataOutputStream out, final Object value) throws IOException
+    {
+        if (value instanceof Boolean)        { out.writeByte('Z'); out.writeBoolean((Boolean)value); }
+        else if (value instanceof Byte)      { out.writeByte('B'); out.writeByte((Byte)value); }
+        else if (value instanceof Character) { out.writeByte('C'); out.writeChar((Character)value); }
+        else if (value instanceof Short)     { out.writeByte('S'); out.writeShort((Short)value); }
+        else if (value instanceof Integer)   { out.writeByte('I'); out.writeInt((Integer)value); }
+        else if (value instanceof Long)      { out.writeByte('J'); out.writeLong((Long)value); }
+        else if (value instanceof Float)     { out.writeByte('F'); out.writeFloat((Float)value); }
+        else if (value instanceof Double)    { out.writeByte('D'); out.writeDouble((Double)value); }
+        else if (value instanceof String)    { out.writeByte('s'); out.writeUTF((String)value); }
+        else if (value instanceof Type)      { out.writeByte('T'); out.writeUTF(((Type)value).getDescriptor()); }
+        else if (value instanceof ModAnnotation.EnumHolder)
+        {
+            final ModAnnotation.EnumHolder holder = (ModAnnotation.EnumHolder)value;
+            out.writeByte('E');
+            out.writeUTF(holder.getDesc());
+            out.writeUTF(holder.getValue());
+        }
+        else if (value instanceof List)
+        {
+            final List<Object> list = (List<Object>)value;
+            out.writeByte('L');
+            out.writeInt(list.size());
+            for (Object o : list)
+                writeValue(out, o);
+        }
+        else if (value instanceof Map)
+        {
+            out.writeByte('M');
+            writeMap(out, (Map<String, Object>)value);
+        }
+        else if (value != null && value.getClass().isArray() && value.getClass().getComponentType().isPrimitive())
+        {
+            // Primitive arrays are passed through by ASM as-is
+            final int length = Array.getLength(value);
+            out.writeByte('[');
+            out.writeUTF(Type.getDescriptor(value.getClass().getComponentType()));
+            out.writeInt(length);
+            for (int i = 0; i < length; i++)
+                writeValue(out, Array.get(value, i));
+        }
+        else
+        {
+            throw new IOException("Unsupported annotation value " + value);
+        }
+    }
+
+    private static Object readValue(final DataInputStream in) throws IOException
+    {
+        final int tag = in.readByte();
+        switch (tag)
+        {
+            case 'Z': return in.readBoolean();
+            case 'B': return in.readByte();
+            case 'C': return in.readChar();
+            case 'S': return in.readShort();
+            case 'I': return in.readInt();
+            case 'J': return in.readLong();
+            case 'F': return in.readFloat();
+            case 'D': return in.readDouble();
+            case 's': return in.readUTF();
+            case 'T': return Type.getType(in.readUTF());
+            case 'E': return new ModAnnotation.EnumHolder(in.readUTF(), in.readUTF());
+            case 'M': return readMap(in);
+            case 'L':
+            {
+                final int size = in.readInt();
+                final ArrayList<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    list.add(readValue(in));
+                return list;
+            }
+            case '[':
+            {
+                final Class<?> component = primitiveClass(in.readUTF());
+                final int length = in.readInt();
+                final Object array = Array.newInstance(component, length);
+                for (int i = 0; i < length; i++)
+                    Array.set(array, i, readValue(in));
+                return array;
+            }
+            default:
+                throw new IOException("Unknown value tag " + tag);
+        }
+    }
+
+    private static Class<?> primitiveClass(final String descriptor) throws IOException
+    {
+        switch (descriptor)
+        {
+            case "Z": return boolean.class;
+            case "B": return byte.class;
+            case "C": return char.class;
+            case "S": return short.class;
+            case "I": return int.class;
+            case "J": return long.class;
+            case "F": return float.class;
+            case "D": return double.class;
+            default: throw new IOException("Unknown primitive array type " + descriptor);
+        }
+    }
+}
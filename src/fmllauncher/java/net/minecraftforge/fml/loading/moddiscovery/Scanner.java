@@ -25,10 +25,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.objectweb.asm.ClassReader;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import static net.minecraftforge.fml.loading.LogMarkers.SCAN;
 
@@ -41,9 +45,17 @@ public class Scanner {
     }
 
     public ModFileScanData scan() {
+        return scan(null);
+    }
+
+    public ModFileScanData scan(@Nullable final ModFileScanCache cache) {
         ModFileScanData result = new ModFileScanData();
         result.addModFileInfo(fileToScan.getModFileInfo());
-        fileToScan.scanFile(p -> fileVisitor(p, result));
+        if (cache == null || !cache.load(fileToScan, result)) {
+            final List<ModClassVisitor> visitors = new ArrayList<>();
+            fileToScan.scanFile(p -> fileVisitor(p, result, visitors));
+            if (cache != null) cache.store(fileToScan, visitors);
+        }
         final IModLanguageProvider loader = fileToScan.getLoader();
         if (loader != null) {
             LOGGER.debug(SCAN, "Scanning {} with language loader {}", fileToScan.getFilePath(), loader.name());
@@ -52,13 +64,14 @@ public class Scanner {
         return result;
     }
 
-    private void fileVisitor(final Path path, final ModFileScanData result) {
+    private void fileVisitor(final Path path, final ModFileScanData result, final List<ModClassVisitor> visitors) {
         LOGGER.debug(SCAN,"Scanning {} path {}", fileToScan, path);
         try (InputStream in = Files.newInputStream(path)){
             ModClassVisitor mcv = new ModClassVisitor();
             ClassReader cr = new ClassReader(in);
             cr.accept(mcv, 0);
             mcv.buildData(result.getClasses(), result.getAnnotations());
+            visitors.add(mcv);
         } catch (IOException | IllegalArgumentException e) {
             // mark path bad
         }
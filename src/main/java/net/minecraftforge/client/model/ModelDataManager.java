@@ -20,20 +20,26 @@
 package net.minecraftforge.client.model;
 
 import java.lang.ref.WeakReference;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.tileentity.TileEntityType;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.SectionPos;
 import net.minecraft.world.World;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.model.data.IModelData;
@@ -42,14 +48,28 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber.Bus;
 
+/**
+ * Caches the model data of the tile entities in the client world by chunk section, refreshing it in batches
+ * when a section is about to be rendered.
+ *
+ * The model data of a section is handed out as an immutable snapshot, which a refresh replaces instead of
+ * modifying, so chunk render workers can read it while the client thread keeps refreshing.
+ */
 @EventBusSubscriber(modid = "forge", bus = Bus.FORGE, value = Dist.CLIENT)
 public class ModelDataManager
 {
     private static WeakReference<World> currentWorld = new WeakReference<>(null);
-    
-    private static final Map<ChunkPos, Set<BlockPos>> needModelDataRefresh = new ConcurrentHashMap<>();
-    
-    private static final Map<ChunkPos, Map<BlockPos, IModelData>> modelDataCache = new ConcurrentHashMap<>();
+
+    // Guards the maps below
+    private static final Object lock = new Object();
+
+    // Packed block positions by packed section position
+    private static final Long2ObjectMap<LongSet> needModelDataRefresh = new Long2ObjectOpenHashMap<>();
+
+    // Model data snapshots by packed block position, by packed section position
+    private static final Long2ObjectMap<Long2ObjectMap<IModelData>> modelDataCache = new Long2ObjectOpenHashMap<>();
+
+    private static final Object2IntOpenHashMap<TileEntityType<?>> refreshCounts = new Object2IntOpenHashMap<>();
 
     private static void cleanCaches(World world)
     {
@@ -60,61 +80,135 @@ public class ModelDataManager
             currentWorld = new WeakReference<>(world);
             needModelDataRefresh.clear();
             modelDataCache.clear();
+            refreshCounts.clear();
         }
     }
-    
+
+    private static long sectionOf(BlockPos pos)
+    {
+        return SectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+    }
+
     public static void requestModelDataRefresh(TileEntity te)
     {
         Preconditions.checkNotNull(te, "Tile entity must not be null");
         World world = te.getWorld();
+        BlockPos pos = te.getPos();
 
-        cleanCaches(world);
-        needModelDataRefresh.computeIfAbsent(new ChunkPos(te.getPos()), $ -> Collections.synchronizedSet(new HashSet<>()))
-                            .add(te.getPos());
+        synchronized (lock)
+        {
+            cleanCaches(world);
+            long section = sectionOf(pos);
+            LongSet needUpdate = needModelDataRefresh.get(section);
+            if (needUpdate == null)
+            {
+                needUpdate = new LongOpenHashSet();
+                needModelDataRefresh.put(section, needUpdate);
+            }
+            needUpdate.add(pos.toLong());
+        }
     }
-    
-    private static void refreshModelData(World world, ChunkPos chunk)
-    {        
+
+    private static Long2ObjectMap<IModelData> refreshModelData(World world, long section)
+    {
         cleanCaches(world);
-        Set<BlockPos> needUpdate = needModelDataRefresh.remove(chunk);
+        LongSet needUpdate = needModelDataRefresh.remove(section);
+        Long2ObjectMap<IModelData> current = modelDataCache.get(section);
+
+        if (needUpdate == null)
+        {
+            return current == null ? Long2ObjectMaps.emptyMap() : current;
+        }
 
-        if (needUpdate != null)
+        Long2ObjectOpenHashMap<IModelData> data = current == null ? new Long2ObjectOpenHashMap<>() : new Long2ObjectOpenHashMap<>(current);
+        for (LongIterator it = needUpdate.iterator(); it.hasNext();)
         {
-            Map<BlockPos, IModelData> data = modelDataCache.computeIfAbsent(chunk, $ -> new ConcurrentHashMap<>());
-            for (BlockPos pos : needUpdate)
+            long pos = it.nextLong();
+            TileEntity toUpdate = world.getTileEntity(BlockPos.fromLong(pos));
+            if (toUpdate != null && !toUpdate.isRemoved())
+            {
+                data.put(pos, toUpdate.getModelData());
+                refreshCounts.addTo(toUpdate.getType(), 1);
+            }
+            else
             {
-                TileEntity toUpdate = world.getTileEntity(pos);
-                if (toUpdate != null && !toUpdate.isRemoved())
-                {
-                    data.put(pos, toUpdate.getModelData());
-                }
-                else
-                {
-                    data.remove(pos);
-                }
+                data.remove(pos);
             }
         }
+
+        if (data.isEmpty())
+        {
+            modelDataCache.remove(section);
+            return Long2ObjectMaps.emptyMap();
+        }
+        Long2ObjectMap<IModelData> snapshot = Long2ObjectMaps.unmodifiable(data);
+        modelDataCache.put(section, snapshot);
+        return snapshot;
     }
-    
+
     @SubscribeEvent
     public static void onChunkUnload(ChunkEvent.Unload event)
     {
         if (!event.getChunk().getWorldForge().isRemote()) return;
-        
+
         ChunkPos chunk = event.getChunk().getPos();
-        needModelDataRefresh.remove(chunk);
-        modelDataCache.remove(chunk);
+        synchronized (lock)
+        {
+            for (int y = 0; y < 16; y++)
+            {
+                long section = SectionPos.asLong(chunk.x, y, chunk.z);
+                needModelDataRefresh.remove(section);
+                modelDataCache.remove(section);
+            }
+        }
     }
-    
+
     public static @Nullable IModelData getModelData(World world, BlockPos pos)
     {
-        return getModelData(world, new ChunkPos(pos)).get(pos);
+        return getSectionModelData(world, pos).get(pos.toLong());
+    }
+
+    /**
+     * Get the model data of the chunk section containing the position, after applying any pending refreshes.
+     *
+     * @return an immutable snapshot of the model data by {@link BlockPos#toLong() packed position}, which later
+     *         refreshes do not change
+     */
+    public static Long2ObjectMap<IModelData> getSectionModelData(World world, BlockPos pos)
+    {
+        Preconditions.checkArgument(world.isRemote, "Cannot request model data for server world");
+        synchronized (lock)
+        {
+            return refreshModelData(world, sectionOf(pos));
+        }
     }
-    
+
+    /**
+     * @deprecated Model data is stored per chunk section, use {@link #getSectionModelData(World, BlockPos)}
+     */
+    @Deprecated
     public static Map<BlockPos, IModelData> getModelData(World world, ChunkPos pos)
     {
         Preconditions.checkArgument(world.isRemote, "Cannot request model data for server world");
-        refreshModelData(world, pos);
-        return modelDataCache.getOrDefault(pos, Collections.emptyMap());
+        Map<BlockPos, IModelData> ret = new HashMap<>();
+        synchronized (lock)
+        {
+            for (int y = 0; y < 16; y++)
+            {
+                refreshModelData(world, SectionPos.asLong(pos.x, y, pos.z)).long2ObjectEntrySet().forEach(e -> ret.put(BlockPos.fromLong(e.getLongKey()), e.getValue()));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return how often the model data of each type of tile entity was refreshed since the current world was loaded
+     */
+    public static Map<TileEntityType<?>, Integer> getRefreshCounts()
+    {
+        synchronized (lock)
+        {
+            return new HashMap<>(refreshCounts);
+        }
     }
 }
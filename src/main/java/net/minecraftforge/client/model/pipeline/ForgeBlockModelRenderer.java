@@ -20,8 +20,14 @@
 package net.minecraftforge.client.model.pipeline;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.mojang.blaze3d.matrix.MatrixStack;
 import com.mojang.blaze3d.vertex.IVertexBuilder;
 import net.minecraft.block.Block;
@@ -29,6 +35,8 @@ import net.minecraft.block.BlockState;
 import net.minecraft.client.renderer.BlockModelRenderer;
 import net.minecraft.client.renderer.model.BakedQuad;
 import net.minecraft.client.renderer.model.IBakedModel;
+import net.minecraft.client.renderer.model.MultipartBakedModel;
+import net.minecraft.client.renderer.model.SimpleBakedModel;
 import net.minecraft.client.renderer.color.BlockColors;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
@@ -38,6 +46,11 @@ import net.minecraftforge.common.ForgeConfig;
 
 public class ForgeBlockModelRenderer extends BlockModelRenderer
 {
+    private static final Direction[] SIDES = Direction.values();
+    // Quads of models that only depend on the state and side, by model and state, indexed by side ordinal + 1 with the
+    // general quads first. Weak keys drop the entries of old models once resources are reloaded.
+    private static final Cache<IBakedModel, Map<BlockState, List<BakedQuad>[]>> STATIC_QUADS = CacheBuilder.newBuilder().weakKeys().build();
+
     private final ThreadLocal<VertexLighterFlat> lighterFlat;
     private final ThreadLocal<VertexLighterSmoothAo> lighterSmooth;
     private final ThreadLocal<VertexBufferConsumer> consumerFlat = ThreadLocal.withInitial(VertexBufferConsumer::new);
@@ -96,8 +109,17 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
         lighter.setState(state);
         lighter.setBlockPos(pos);
         boolean empty = true;
-        rand.setSeed(seed);
-        List<BakedQuad> quads = model.getQuads(state, null, rand, modelData);
+        List<BakedQuad>[] staticQuads = getStaticQuads(model, state, rand, seed, modelData);
+        List<BakedQuad> quads;
+        if(staticQuads != null)
+        {
+            quads = staticQuads[0];
+        }
+        else
+        {
+            rand.setSeed(seed);
+            quads = model.getQuads(state, null, rand, modelData);
+        }
         if(!quads.isEmpty())
         {
             lighter.updateBlockInfo();
@@ -107,10 +129,17 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
                 quad.pipe(lighter);
             }
         }
-        for(Direction side : Direction.values())
+        for(Direction side : SIDES)
         {
-            rand.setSeed(seed);
-            quads = model.getQuads(state, side, rand, modelData);
+            if(staticQuads != null)
+            {
+                quads = staticQuads[side.ordinal() + 1];
+            }
+            else
+            {
+                rand.setSeed(seed);
+                quads = model.getQuads(state, side, rand, modelData);
+            }
             if(!quads.isEmpty())
             {
                 if(!checkSides || Block.shouldSideBeRendered(state, world, pos, side))
@@ -127,4 +156,36 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
         lighter.resetBlockInfo();
         return !empty;
     }
+
+    /**
+     * @return the memoized quads of the model for the state, or null if its quads may depend on the random or model data
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static List<BakedQuad>[] getStaticQuads(IBakedModel model, BlockState state, Random rand, long seed, IModelData modelData)
+    {
+        if(model.getClass() != SimpleBakedModel.class && (model.getClass() != MultipartBakedModel.class || !((MultipartBakedModel)model).hasStaticQuads()))
+        {
+            return null;
+        }
+        Map<BlockState, List<BakedQuad>[]> byState = STATIC_QUADS.getIfPresent(model);
+        if(byState == null)
+        {
+            byState = STATIC_QUADS.asMap().computeIfAbsent(model, m -> new ConcurrentHashMap<>());
+        }
+        List<BakedQuad>[] quads = byState.get(state);
+        if(quads == null)
+        {
+            quads = new List[SIDES.length + 1];
+            rand.setSeed(seed);
+            quads[0] = model.getQuads(state, null, rand, modelData);
+            for(Direction side : SIDES)
+            {
+                rand.setSeed(seed);
+                quads[side.ordinal() + 1] = model.getQuads(state, side, rand, modelData);
+            }
+            byState.put(state, quads);
+        }
+        return quads;
+    }
 }
@@ -94,6 +94,10 @@ public class LightUtil
             consumer.setQuadTint(quad.getTintIndex());
         }
         consumer.setApplyDiffuseLighting(quad.applyDiffuseLighting());
+        if(consumer instanceof VertexLighterFlat && ((VertexLighterFlat)consumer).putBlockQuad(quad.getVertexData()))
+        {
+            return;
+        }
         float[] data = new float[4];
         VertexFormat formatFrom = consumer.getVertexFormat();
         VertexFormat formatTo = DefaultVertexFormats.BLOCK;
@@ -50,6 +50,22 @@ public class VertexLighterFlat extends QuadGatheringTransformer
     private static final int LIGHTMAP_MAX = 0xF0;
     // Inlined factor for rescaling input lightmap values, "rounded" up to the next float value to avoid precision loss when result is truncated to int
     private static final float LIGHTMAP_RESCALE = Math.nextAfter((float) LIGHTMAP_PACKING_FACTOR / LIGHTMAP_MAX, LIGHTMAP_PACKING_FACTOR);
+    // Lighters that intercept put() are always given the quad element by element
+    private static final ClassValue<Boolean> PACKED_INPUT = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                return type.getMethod("put", int.class, float[].class).getDeclaringClass() == QuadGatheringTransformer.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return false;
+            }
+        }
+    };
 
     protected final BlockInfo blockInfo;
     private int tint = -1;
@@ -62,6 +78,13 @@ public class VertexLighterFlat extends QuadGatheringTransformer
 
     protected VertexFormat baseFormat;
     protected MatrixStack.Entry pose;
+
+    // Scratch space, so lighting a quad doesn't allocate
+    private final float[][] generatedNormal = new float[4][4];
+    private final Vector3f normalEdge1 = new Vector3f();
+    private final Vector3f normalEdge2 = new Vector3f();
+    private final Vector3f normalScratch = new Vector3f();
+    private final Vector4f posScratch = new Vector4f();
     
     public VertexLighterFlat(BlockColors colors)
     {
@@ -161,12 +184,15 @@ public class VertexLighterFlat extends QuadGatheringTransformer
         }
         else // normals must be generated
         {
-            normal = new float[4][4];
-            Vector3f v1 = new Vector3f(position[3]);
-            Vector3f t = new Vector3f(position[1]);
-            Vector3f v2 = new Vector3f(position[2]);
+            normal = generatedNormal;
+            Vector3f v1 = normalEdge1;
+            Vector3f t = normalScratch;
+            Vector3f v2 = normalEdge2;
+            v1.set(position[3][0], position[3][1], position[3][2]);
+            t.set(position[1][0], position[1][1], position[1][2]);
+            v2.set(position[2][0], position[2][1], position[2][2]);
             v1.sub(t);
-            t.set(position[0]);
+            t.set(position[0][0], position[0][1], position[0][2]);
             v2.sub(t);
             v2.cross(v1);
             v2.normalize();
@@ -225,8 +251,8 @@ public class VertexLighterFlat extends QuadGatheringTransformer
                 switch(element.getUsage())
                 {
                     case POSITION:
-                        final Vector4f pos = new Vector4f(
-                                position[v][0], position[v][1], position[v][2], 1);
+                        final Vector4f pos = posScratch;
+                        pos.set(position[v][0], position[v][1], position[v][2], 1);
                         pos.transform(pose.getMatrix());
 
                         position[v][0] = pos.getX();
@@ -235,7 +261,8 @@ public class VertexLighterFlat extends QuadGatheringTransformer
                         parent.put(e, position[v]);
                         break;
                     case NORMAL:
-                        final Vector3f norm = new Vector3f(normal[v]);
+                        final Vector3f norm = normalScratch;
+                        norm.set(normal[v][0], normal[v][1], normal[v][2]);
                         norm.transform(pose.getNormal());
 
                         normal[v][0] = norm.getX();
@@ -261,6 +288,60 @@ public class VertexLighterFlat extends QuadGatheringTransformer
         tint = -1;
     }
 
+    /**
+     * Fast path for {@link LightUtil#putBakedQuad}: reads a quad in the {@link DefaultVertexFormats#BLOCK} format
+     * straight from its packed vertex data into the quad being gathered, instead of unpacking and passing on
+     * each element separately. The results are the same as for {@link LightUtil#unpack}.
+     *
+     * @return false if this lighter is not gathering quads in the block format, the quad must then be put element by element
+     */
+    boolean putBlockQuad(int[] data)
+    {
+        if (baseFormat != DefaultVertexFormats.BLOCK || vertices != 0 || data.length < 32 || !PACKED_INPUT.get(getClass()))
+            return false;
+        for (int v = 0; v < 4; v++)
+        {
+            final int base = v * 8;
+            final float[] pos = quadData[0][v];
+            pos[0] = Float.intBitsToFloat(data[base]);
+            pos[1] = Float.intBitsToFloat(data[base + 1]);
+            pos[2] = Float.intBitsToFloat(data[base + 2]);
+            pos[3] = 1;
+            final int c = data[base + 3];
+            final float[] color = quadData[1][v];
+            color[0] = (float)(c & 0xFF) / 0xFF;
+            color[1] = (float)(c >>> 8 & 0xFF) / 0xFF;
+            color[2] = (float)(c >>> 16 & 0xFF) / 0xFF;
+            color[3] = (float)(c >>> 24) / 0xFF;
+            final float[] uv = quadData[2][v];
+            uv[0] = Float.intBitsToFloat(data[base + 4]);
+            uv[1] = Float.intBitsToFloat(data[base + 5]);
+            uv[2] = 0;
+            uv[3] = 0;
+            final int l = data[base + 6];
+            final float[] lightmap = quadData[3][v];
+            lightmap[0] = (float)(short)l / 0x7FFF;
+            lightmap[1] = (float)(short)(l >>> 16) / 0x7FFF;
+            lightmap[2] = 0;
+            lightmap[3] = 0;
+            final int n = data[base + 7];
+            final float[] normal = quadData[4][v];
+            normal[0] = (float)(byte)n / 0x7F;
+            normal[1] = (float)(byte)(n >>> 8) / 0x7F;
+            normal[2] = (float)(byte)(n >>> 16) / 0x7F;
+            normal[3] = 0;
+            final float[] padding = quadData[5][v];
+            padding[0] = (float)(byte)(n >>> 24) / 0x7F;
+            padding[1] = 0;
+            padding[2] = 0;
+            padding[3] = 0;
+        }
+        for (int e = 0; e < 6; e++)
+            dataLength[e] = 4;
+        processQuad();
+        return true;
+    }
+
     protected void updateLightmap(float[] normal, float[] lightmap, float x, float y, float z)
     {
         final float e1 = 1f - 1e-2f;
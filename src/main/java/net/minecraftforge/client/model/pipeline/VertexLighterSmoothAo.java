@@ -25,6 +25,30 @@ import net.minecraft.util.math.MathHelper;
 
 public class VertexLighterSmoothAo extends VertexLighterFlat
 {
+    // Lighters overriding the single channel calcLightmap keep having it called for each channel
+    private static final ClassValue<Boolean> SINGLE_CHANNEL = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            for (Class<?> c = type; c != VertexLighterSmoothAo.class; c = c.getSuperclass())
+            {
+                try
+                {
+                    c.getDeclaredMethod("calcLightmap", float[][][][].class, float.class, float.class, float.class);
+                    return true;
+                }
+                catch (NoSuchMethodException e)
+                {
+                    // Not declared here, check the superclass
+                }
+            }
+            return false;
+        }
+    };
+
+    private final float[] lightScratch = new float[2];
+
     public VertexLighterSmoothAo(BlockColors colors)
     {
         super(colors);
@@ -33,8 +57,14 @@ public class VertexLighterSmoothAo extends VertexLighterFlat
     @Override
     protected void updateLightmap(float[] normal, float[] lightmap, float x, float y, float z)
     {
-        lightmap[0] = calcLightmap(blockInfo.getBlockLight(), x, y, z);
-        lightmap[1] = calcLightmap(blockInfo.getSkyLight(), x, y, z);
+        if (SINGLE_CHANNEL.get(getClass()))
+        {
+            lightmap[0] = calcLightmap(blockInfo.getBlockLight(), x, y, z);
+            lightmap[1] = calcLightmap(blockInfo.getSkyLight(), x, y, z);
+            return;
+        }
+        // Both channels share the interpolation weights, so they are computed together
+        calcLightmap(blockInfo.getBlockLight(), blockInfo.getSkyLight(), x, y, z, lightmap);
     }
 
     @Override
@@ -48,6 +78,15 @@ public class VertexLighterSmoothAo extends VertexLighterFlat
     }
 
     protected float calcLightmap(float[][][][] light, float x, float y, float z)
+    {
+        calcLightmap(light, light, x, y, z, lightScratch);
+        return lightScratch[0];
+    }
+
+    /**
+     * Interpolate the block and sky light at the given position into the first two elements of the lightmap.
+     */
+    protected void calcLightmap(float[][][][] blockLight, float[][][][] skyLight, float x, float y, float z, float[] lightmap)
     {
         x *= 2;
         y *= 2;
@@ -105,7 +144,8 @@ public class VertexLighterSmoothAo extends VertexLighterFlat
             z *= s;
         }
 
-        float l = 0;
+        float lb = 0;
+        float ls = 0;
         float s = 0;
 
         for(int ix = 0; ix <= 1; ix++)
@@ -125,22 +165,24 @@ public class VertexLighterSmoothAo extends VertexLighterFlat
 
                     float bx = (2 * vx + vy + vz + 6) / (s3 * sy * sz * (vx + 2));
                     s += bx;
-                    l += bx * light[0][ix][iy][iz];
+                    lb += bx * blockLight[0][ix][iy][iz];
+                    ls += bx * skyLight[0][ix][iy][iz];
 
                     float by = (2 * vy + vz + vx + 6) / (s3 * sz * sx * (vy + 2));
                     s += by;
-                    l += by * light[1][ix][iy][iz];
+                    lb += by * blockLight[1][ix][iy][iz];
+                    ls += by * skyLight[1][ix][iy][iz];
 
                     float bz = (2 * vz + vx + vy + 6) / (s3 * sx * sy * (vz + 2));
                     s += bz;
-                    l += bz * light[2][ix][iy][iz];
+                    lb += bz * blockLight[2][ix][iy][iz];
+                    ls += bz * skyLight[2][ix][iy][iz];
                 }
             }
         }
 
-        l /= s;
-        l = MathHelper.clamp(l, 0, 1);
-        return l;
+        lightmap[0] = MathHelper.clamp(lb / s, 0, 1);
+        lightmap[1] = MathHelper.clamp(ls / s, 0, 1);
     }
 
     protected float getAo(float x, float y, float z)
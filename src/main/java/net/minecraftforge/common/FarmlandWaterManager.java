@@ -20,10 +20,12 @@
 package net.minecraftforge.common;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.MapMaker;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.world.IWorldReader;
 import net.minecraft.world.World;
@@ -34,6 +36,8 @@ import net.minecraftforge.common.ticket.SimpleTicket;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -42,7 +46,8 @@ import java.util.WeakHashMap;
 public class FarmlandWaterManager
 {
     private static final boolean DEBUG = Boolean.parseBoolean(System.getProperty("forge.debugFarmlandWaterManager", "false"));
-    private static final Map<IWorldReader, Map<ChunkPos, ChunkTicketManager<Vector3d>>> customWaterHandler = new WeakHashMap<>();
+    // Managers are only weakly referenced here, they are kept alive by the tickets registered to them
+    private static final Map<IWorldReader, Long2ObjectMap<WeakReference<WaterTicketManager>>> customWaterHandler = new WeakHashMap<>();
     private static final Logger LOGGER = LogManager.getLogger();
 
     /**
@@ -61,11 +66,11 @@ public class FarmlandWaterManager
     public static<T extends SimpleTicket<Vector3d>> T addCustomTicket(World world, T ticket, ChunkPos masterChunk, ChunkPos... additionalChunks)
     {
         Preconditions.checkArgument(!world.isRemote, "Water region is only determined server-side");
-        Map<ChunkPos, ChunkTicketManager<Vector3d>> ticketMap =  customWaterHandler.computeIfAbsent(world, id -> new MapMaker().weakValues().makeMap());
+        Long2ObjectMap<WeakReference<WaterTicketManager>> ticketMap = customWaterHandler.computeIfAbsent(world, id -> new Long2ObjectOpenHashMap<>());
         ChunkTicketManager<Vector3d>[] additionalTickets = new ChunkTicketManager[additionalChunks.length];
         for (int i = 0; i < additionalChunks.length; i++)
-            additionalTickets[i] = ticketMap.computeIfAbsent(additionalChunks[i], ChunkTicketManager::new);
-        ticket.setManager(ticketMap.computeIfAbsent(masterChunk, ChunkTicketManager::new), additionalTickets);
+            additionalTickets[i] = getOrCreateTicketManager(ticketMap, additionalChunks[i]);
+        ticket.setManager(getOrCreateTicketManager(ticketMap, masterChunk), additionalTickets);
         ticket.validate();
         return ticket;
     }
@@ -131,21 +136,13 @@ public class FarmlandWaterManager
      */
     public static boolean hasBlockWaterTicket(IWorldReader world, BlockPos pos)
     {
-        ChunkTicketManager<Vector3d> ticketManager = getTicketManager(new ChunkPos(pos.getX() >> 4, pos.getZ() >> 4), world);
-        if (ticketManager != null)
-        {
-            Vector3d posAsVec3d = new Vector3d(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
-            for (SimpleTicket<Vector3d> ticket : ticketManager.getTickets()) {
-                if (ticket.matches(posAsVec3d))
-                    return true;
-            }
-        }
-        return false;
+        WaterTicketManager ticketManager = getTicketManager(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), world);
+        return ticketManager != null && ticketManager.isWatered(pos);
     }
 
     static void removeTickets(IChunk chunk)
     {
-        ChunkTicketManager<Vector3d> ticketManager = getTicketManager(chunk.getPos(), chunk.getWorldForge());
+        ChunkTicketManager<Vector3d> ticketManager = getTicketManager(chunk.getPos().asLong(), chunk.getWorldForge());
         if (ticketManager != null)
         {
             if (DEBUG)
@@ -156,13 +153,160 @@ public class FarmlandWaterManager
         }
     }
 
-    private static ChunkTicketManager<Vector3d> getTicketManager(ChunkPos pos, IWorldReader world) {
+    private static WaterTicketManager getOrCreateTicketManager(Long2ObjectMap<WeakReference<WaterTicketManager>> ticketMap, ChunkPos pos)
+    {
+        WeakReference<WaterTicketManager> ref = ticketMap.get(pos.asLong());
+        WaterTicketManager ticketManager = ref == null ? null : ref.get();
+        if (ticketManager == null)
+        {
+            ticketManager = new WaterTicketManager(pos);
+            ticketMap.put(pos.asLong(), new WeakReference<>(ticketManager));
+        }
+        return ticketManager;
+    }
+
+    private static WaterTicketManager getTicketManager(long pos, IWorldReader world) {
         Preconditions.checkArgument(!world.isRemote(), "Water region is only determined server-side");
-        Map<ChunkPos, ChunkTicketManager<Vector3d>> ticketMap = customWaterHandler.get(world);
+        Long2ObjectMap<WeakReference<WaterTicketManager>> ticketMap = customWaterHandler.get(world);
         if (ticketMap == null)
         {
             return null;
         }
-        return ticketMap.get(pos);
+        WeakReference<WaterTicketManager> ref = ticketMap.get(pos);
+        if (ref == null)
+        {
+            return null;
+        }
+        WaterTicketManager ticketManager = ref.get();
+        if (ticketManager == null) //All tickets of this chunk have been collected
+            ticketMap.remove(pos);
+        return ticketManager;
+    }
+
+    /**
+     * Ticket manager of a single chunk that indexes the blocks covered by its {@link AABBTicket}s.
+     * <br>
+     * The index holds one bit per block in each of the chunk's sections and is rebuilt lazily whenever the tickets change,
+     * so a lookup is a single bit test. Other ticket types can't be indexed and are still matched one by one.
+     */
+    private static final class WaterTicketManager extends ChunkTicketManager<Vector3d>
+    {
+        private static final int SECTIONS = 16;
+
+        // One bit per block of a section, indexed by y << 8 | z << 4 | x
+        private final long[][] sections = new long[SECTIONS][];
+        private boolean dirty = true;
+        private int indexedTickets;
+        private int unindexedTickets;
+
+        private WaterTicketManager(ChunkPos pos)
+        {
+            super(pos);
+        }
+
+        @Override
+        public void add(SimpleTicket<Vector3d> ticket)
+        {
+            super.add(ticket);
+            this.dirty = true;
+        }
+
+        @Override
+        public void remove(SimpleTicket<Vector3d> ticket)
+        {
+            super.remove(ticket);
+            this.dirty = true;
+        }
+
+        boolean isWatered(BlockPos pos)
+        {
+            // Tickets are only weakly held and may also be removed by unloading, either changes the size
+            if (this.dirty || getTickets().size() != this.indexedTickets)
+                rebuild();
+            int y = pos.getY();
+            if (y < 0 || y >= SECTIONS << 4)
+                return matchesAny(pos, false);
+            long[] section = this.sections[y >> 4];
+            if (section != null)
+            {
+                int index = (y & 15) << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+                if ((section[index >>> 6] & 1L << index) != 0)
+                    return true;
+            }
+            return this.unindexedTickets > 0 && matchesAny(pos, true);
+        }
+
+        private boolean matchesAny(BlockPos pos, boolean skipIndexed)
+        {
+            Vector3d posAsVec3d = new Vector3d(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+            for (SimpleTicket<Vector3d> ticket : getTickets())
+            {
+                if (skipIndexed && isIndexable(ticket))
+                    continue;
+                if (ticket.matches(posAsVec3d))
+                    return true;
+            }
+            return false;
+        }
+
+        private void rebuild()
+        {
+            Arrays.fill(this.sections, null);
+            int count = 0;
+            int unindexed = 0;
+            for (SimpleTicket<Vector3d> ticket : getTickets())
+            {
+                count++;
+                if (isIndexable(ticket))
+                    mark(((AABBTicket) ticket).axisAlignedBB);
+                else
+                    unindexed++;
+            }
+            this.indexedTickets = count;
+            this.unindexedTickets = unindexed;
+            this.dirty = false;
+        }
+
+        private void mark(AxisAlignedBB aabb)
+        {
+            // A block is watered if its center lies inside the box, so the covered blocks are [ceil(min - 0.5), ceil(max - 0.5))
+            // A box with NaN bounds contains no block
+            if (Double.isNaN(aabb.minX) || Double.isNaN(aabb.minY) || Double.isNaN(aabb.minZ) || Double.isNaN(aabb.maxX) || Double.isNaN(aabb.maxY) || Double.isNaN(aabb.maxZ))
+                return;
+            int baseX = this.pos.x << 4;
+            int baseZ = this.pos.z << 4;
+            int minX = ceilWithin(aabb.minX, baseX, baseX + 16) - baseX;
+            int maxX = ceilWithin(aabb.maxX, baseX, baseX + 16) - baseX;
+            int minY = ceilWithin(aabb.minY, 0, SECTIONS << 4);
+            int maxY = ceilWithin(aabb.maxY, 0, SECTIONS << 4);
+            int minZ = ceilWithin(aabb.minZ, baseZ, baseZ + 16) - baseZ;
+            int maxZ = ceilWithin(aabb.maxZ, baseZ, baseZ + 16) - baseZ;
+            if (minX >= maxX || minY >= maxY || minZ >= maxZ)
+                return;
+            long row = ((1L << (maxX - minX)) - 1) << minX;
+            for (int y = minY; y < maxY; y++)
+            {
+                long[] section = this.sections[y >> 4];
+                if (section == null)
+                    section = this.sections[y >> 4] = new long[64];
+                for (int z = minZ; z < maxZ; z++)
+                {
+                    int index = (y & 15) << 8 | z << 4;
+                    section[index >>> 6] |= row << (index & 63);
+                }
+            }
+        }
+
+        // Clamped before converting, as unbounded or huge box coordinates would overflow the int
+        private static int ceilWithin(double coordinate, int min, int max)
+        {
+            return MathHelper.ceil(MathHelper.clamp(coordinate - 0.5, min, max));
+        }
+
+        private static boolean isIndexable(SimpleTicket<Vector3d> ticket)
+        {
+            // Subclasses may match differently than their box
+            return ticket.getClass() == AABBTicket.class;
+        }
     }
 }
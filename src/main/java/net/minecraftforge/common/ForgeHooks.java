@@ -119,6 +119,7 @@ import net.minecraftforge.common.world.BiomeGenerationSettingsBuilder;
 import net.minecraftforge.common.world.MobSpawnInfoBuilder;
 import net.minecraftforge.event.AnvilUpdateEvent;
 import net.minecraftforge.event.DifficultyChangeEvent;
+import net.minecraftforge.event.EventListenerQuery;
 import net.minecraftforge.event.ForgeEventFactory;
 import net.minecraftforge.event.ServerChatEvent;
 import net.minecraftforge.event.entity.EntityTravelToDimensionEvent;
@@ -307,7 +308,7 @@ public class ForgeHooks
 
     public static boolean onLivingUpdate(LivingEntity entity)
     {
-        return MinecraftForge.EVENT_BUS.post(new LivingUpdateEvent(entity));
+        return EventListenerQuery.hasListeners(LivingUpdateEvent.class) && MinecraftForge.EVENT_BUS.post(new LivingUpdateEvent(entity));
     }
 
     public static boolean onLivingAttack(LivingEntity entity, DamageSource src, float amount)
@@ -329,6 +330,7 @@ public class ForgeHooks
 
     public static float onLivingHurt(LivingEntity entity, DamageSource src, float amount)
     {
+        if (!EventListenerQuery.hasListeners(LivingHurtEvent.class)) return amount;
         LivingHurtEvent event = new LivingHurtEvent(entity, src, amount);
         return (MinecraftForge.EVENT_BUS.post(event) ? 0 : event.getAmount());
     }
@@ -40,6 +40,8 @@ import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.TickEvent.ClientTickEvent;
 import net.minecraftforge.event.TickEvent.Phase;
 import net.minecraftforge.event.TickEvent.ServerTickEvent;
+import net.minecraftforge.fml.event.server.FMLServerStartedEvent;
+import net.minecraftforge.server.command.ChunkGenWorker;
 import net.minecraftforge.server.command.ForgeCommand;
 import net.minecraftforge.server.command.ConfigCommand;
 
@@ -80,6 +82,12 @@ public class ForgeInternalHandler
         WorldWorkerManager.tick(event.phase == TickEvent.Phase.START);
     }
 
+    @SubscribeEvent
+    public void onServerStarted(FMLServerStartedEvent event)
+    {
+        ChunkGenWorker.resumeAll(event.getServer());
+    }
+
     @SubscribeEvent
     public void checkSettings(ClientTickEvent event)
     {
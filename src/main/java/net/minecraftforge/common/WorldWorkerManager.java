@@ -20,68 +20,233 @@
 package net.minecraftforge.common;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Runs {@link IWorker}s in the time left over at the end of each server tick.
+ *
+ * The time available is what remains of the 50ms tick, judged by both the current tick and the recent average,
+ * so background work does not push the server past its tick rate. Higher priority workers run first; workers of the
+ * same priority that had the least time last run go first, and each gets at most its own budget or a fair share of
+ * what is left. Thread safe workers run on a background thread instead, limited only by their budget.
+ */
 public class WorldWorkerManager
 {
-    private static List<IWorker> workers = new ArrayList<IWorker>();
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // Kept free for the unpredictable part of the next tick
+    private static final long HEADROOM_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    // Workers still make some progress when the server is overloaded
+    private static final long MIN_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long DEFAULT_OFF_THREAD_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(e -> e.sortPriority).reversed().thenComparingLong(e -> e.sortLastTickNanos);
+
+    private static final List<Entry> workers = new CopyOnWriteArrayList<>();
+    private static final List<Entry> order = new ArrayList<>();
+    private static ExecutorService offThreadExecutor;
     private static long startTime = -1;
-    private static int index = 0;
+    private static long averageTickNanos;
+    private static long lastBudgetNanos;
 
     public static void tick(boolean start)
     {
         if (start)
         {
-            startTime = System.currentTimeMillis();
+            startTime = System.nanoTime();
             return;
         }
-
-        index = 0;
-        IWorker task = getNext();
-        if (task == null)
+        if (workers.isEmpty())
             return;
 
-        long time = 50 - (System.currentTimeMillis() - startTime);
-        if (time < 10)
-            time = 10; //If ticks are lagging, give us at least 10ms to do something.
-        time += System.currentTimeMillis();
+        final long now = System.nanoTime();
+        final long elapsed = now - startTime;
+        averageTickNanos = averageTickNanos == 0 ? elapsed : (averageTickNanos * 7 + elapsed) / 8;
+        final long budget = Math.max(MIN_BUDGET_NANOS, TICK_NANOS - Math.max(elapsed, averageTickNanos) - HEADROOM_NANOS);
+        final long deadline = now + budget;
+        lastBudgetNanos = budget;
 
-        while (System.currentTimeMillis() < time && task != null)
+        order.clear();
+        order.addAll(workers);
+        for (Entry entry : order)
+            entry.snapshotSortKeys();
+        order.sort(ORDER);
+        int remaining = 0;
+        for (Entry entry : order)
         {
-            boolean again = task.doWork();
+            if (!entry.worker.isThreadSafe())
+                remaining++;
+        }
 
-            if (!task.hasWork())
-            {
-                remove(task);
-                task = getNext();
-            }
-            else if (!again)
+        for (Entry entry : order)
+        {
+            if (entry.worker.isThreadSafe())
             {
-                task = getNext();
+                entry.schedule();
+                continue;
             }
+            final long time = System.nanoTime();
+            if (time >= deadline)
+                break;
+            final long share = (deadline - time) / remaining--;
+            final long limit = entry.worker.getBudgetNanos() > 0 ? Math.min(share, entry.worker.getBudgetNanos()) : share;
+            entry.run(time + limit);
+            if (!entry.worker.hasWork())
+                workers.remove(entry);
         }
+        order.clear();
     }
 
-    public static synchronized void addWorker(IWorker worker)
+    public static void addWorker(IWorker worker)
     {
-        workers.add(worker);
+        workers.add(new Entry(worker));
     }
 
-    private static synchronized IWorker getNext()
+    //Internal only, used to clear everything when the server shuts down.
+    public static void clear()
     {
-        return workers.size() > index ? workers.get(index++) : null;
+        workers.clear();
     }
 
-    private static synchronized void remove(IWorker worker)
+    /**
+     * @return a snapshot of the statistics of every registered worker
+     */
+    public static List<WorkerStats> getStats()
     {
-        workers.remove(worker);
-        index--;
+        final List<WorkerStats> ret = new ArrayList<>();
+        for (Entry entry : workers)
+            ret.add(new WorkerStats(entry));
+        return ret;
     }
 
-    //Internal only, used to clear everything when the server shuts down.
-    public static synchronized void clear()
+    /**
+     * @return the time workers on the server thread were given last tick, in nanoseconds
+     */
+    public static long getLastBudgetNanos()
     {
-        workers.clear();
+        return lastBudgetNanos;
+    }
+
+    /**
+     * @return the moving average of the server tick time before workers run, in nanoseconds
+     */
+    public static long getAverageTickNanos()
+    {
+        return averageTickNanos;
+    }
+
+    private static synchronized ExecutorService getOffThreadExecutor()
+    {
+        if (offThreadExecutor == null)
+        {
+            offThreadExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "Forge World Worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return offThreadExecutor;
+    }
+
+    private static class Entry
+    {
+        private final IWorker worker;
+        private final AtomicBoolean running = new AtomicBoolean();
+        private volatile long calls;
+        private volatile long totalNanos;
+        private volatile long lastTickNanos;
+        private volatile long ticks;
+        // Copied before sorting, off thread workers update lastTickNanos while the server thread sorts
+        private int sortPriority;
+        private long sortLastTickNanos;
+
+        private Entry(IWorker worker)
+        {
+            this.worker = worker;
+        }
+
+        private void snapshotSortKeys()
+        {
+            this.sortPriority = worker.getPriority();
+            this.sortLastTickNanos = this.lastTickNanos;
+        }
+
+        private void run(long until)
+        {
+            final long start = System.nanoTime();
+            long calls = 0;
+            boolean again;
+            do
+            {
+                calls++;
+                again = worker.doWork();
+            }
+            while (again && worker.hasWork() && System.nanoTime() < until);
+            final long spent = System.nanoTime() - start;
+            this.calls += calls;
+            this.totalNanos += spent;
+            this.lastTickNanos = spent;
+            this.ticks++;
+        }
+
+        private void schedule()
+        {
+            if (!running.compareAndSet(false, true))
+                return;
+            if (!worker.hasWork())
+            {
+                workers.remove(this);
+                return;
+            }
+            final long budget = worker.getBudgetNanos() > 0 ? worker.getBudgetNanos() : DEFAULT_OFF_THREAD_BUDGET_NANOS;
+            getOffThreadExecutor().execute(() -> {
+                try
+                {
+                    run(System.nanoTime() + budget);
+                }
+                finally
+                {
+                    running.set(false);
+                }
+            });
+        }
+    }
+
+    public static class WorkerStats
+    {
+        private final String name;
+        private final int priority;
+        private final long budgetNanos;
+        private final boolean threadSafe;
+        private final long calls;
+        private final long totalNanos;
+        private final long lastTickNanos;
+        private final long ticks;
+
+        private WorkerStats(Entry entry)
+        {
+            this.name = entry.worker.getClass().getName();
+            this.priority = entry.worker.getPriority();
+            this.budgetNanos = entry.worker.getBudgetNanos();
+            this.threadSafe = entry.worker.isThreadSafe();
+            this.calls = entry.calls;
+            this.totalNanos = entry.totalNanos;
+            this.lastTickNanos = entry.lastTickNanos;
+            this.ticks = entry.ticks;
+        }
+
+        public String getName() { return name; }
+        public int getPriority() { return priority; }
+        public long getBudgetNanos() { return budgetNanos; }
+        public boolean isThreadSafe() { return threadSafe; }
+        public long getCalls() { return calls; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getLastTickNanos() { return lastTickNanos; }
+        public long getTicks() { return ticks; }
     }
 
     public static interface IWorker
@@ -93,5 +258,31 @@ public class WorldWorkerManager
          * Returning false will skip calling this worker until next tick.
          */
         boolean doWork();
+
+        /**
+         * Workers with a higher priority are given time first each tick.
+         */
+        default int getPriority()
+        {
+            return 0;
+        }
+
+        /**
+         * The most time this worker may spend per tick, in nanoseconds. Zero or less gives it a fair share of the time
+         * left this tick, or 50ms per tick when it is {@link #isThreadSafe() thread safe}.
+         */
+        default long getBudgetNanos()
+        {
+            return 0;
+        }
+
+        /**
+         * Return true if this worker does not touch world state, so it can be run on a background thread outside
+         * of the server tick. Such a worker is never run concurrently with itself.
+         */
+        default boolean isThreadSafe()
+        {
+            return false;
+        }
     }
 }
@@ -22,8 +22,12 @@ package net.minecraftforge.common.capabilities;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import com.google.common.collect.Lists;
 
@@ -44,6 +48,10 @@ import net.minecraftforge.common.util.LazyOptional;
  *
  * Internally the handlers are baked into arrays for fast iteration.
  * The ResourceLocations will be used for the NBT Key when serializing.
+ *
+ * Lookups are indexed per capability: providers implementing {@link IDeclaredCapabilityProvider}
+ * are skipped for capabilities they do not expose, and when the first remaining provider is one
+ * of them its result is remembered per side until that LazyOptional is invalidated.
  */
 @ParametersAreNonnullByDefault
 @MethodsReturnNonnullByDefault
@@ -53,6 +61,9 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
     private INBTSerializable<INBT>[] writers;
     private String[] names;
     private final List<Runnable> listeners;
+    private final boolean indexed;
+    // Copy on write, so lookups never need to lock. Racing writers only cost a redundant index.
+    private volatile Map<Capability<?>, Lookup> lookups = Collections.emptyMap();
 
     public CapabilityDispatcher(Map<ResourceLocation, ICapabilityProvider> list, List<Runnable> listeners)
     {
@@ -91,25 +102,48 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
         caps = lstCaps.toArray(new ICapabilityProvider[lstCaps.size()]);
         writers = lstWriters.toArray(new INBTSerializable[lstWriters.size()]);
         names = lstNames.toArray(new String[lstNames.size()]);
+        indexed = lstCaps.stream().anyMatch(IDeclaredCapabilityProvider.class::isInstance);
     }
 
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> LazyOptional<T> getCapability(Capability<T> cap, @Nullable Direction side)
     {
-        for (ICapabilityProvider c : caps)
+        if (!indexed) // Nothing declared, so there is nothing to index
+        {
+            return getCapability(caps, cap, side);
+        }
+        Lookup lookup = lookups.get(cap);
+        if (lookup == null)
+        {
+            lookup = addLookup(cap);
+        }
+        final int sideIndex = side == null ? Lookup.NULL_SIDE : side.ordinal();
+        final LazyOptional<?> cached = lookup.resolved[sideIndex];
+        if (cached != null && cached.isPresent())
+        {
+            return (LazyOptional<T>)cached;
+        }
+        final ICapabilityProvider[] candidates = lookup.candidates;
+        for (int x = 0; x < candidates.length; x++)
         {
-            LazyOptional<T> ret = c.getCapability(cap, side);
-            //noinspection ConstantConditions
-            if (ret == null)
+            LazyOptional<T> ret = query(candidates[x], cap, side);
+            if (ret.isPresent())
             {
-                throw new RuntimeException(
-                        String.format(
-                                "Provider %s.getCapability() returned null; return LazyOptional.empty() instead!",
-                                c.getClass().getTypeName()
-                        )
-                );
+                // Only the first candidate is safe to remember, any earlier one could start answering later.
+                lookup.resolved[sideIndex] = x == 0 && candidates[x] instanceof IDeclaredCapabilityProvider ? ret : null;
+                return ret;
             }
+        }
+        return LazyOptional.empty();
+    }
+
+    private static <T> LazyOptional<T> getCapability(ICapabilityProvider[] providers, Capability<T> cap, @Nullable Direction side)
+    {
+        for (ICapabilityProvider c : providers)
+        {
+            LazyOptional<T> ret = query(c, cap, side);
             if (ret.isPresent())
             {
                 return ret;
@@ -118,6 +152,39 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
         return LazyOptional.empty();
     }
 
+    private static <T> LazyOptional<T> query(ICapabilityProvider c, Capability<T> cap, @Nullable Direction side)
+    {
+        LazyOptional<T> ret = c.getCapability(cap, side);
+        //noinspection ConstantConditions
+        if (ret == null)
+        {
+            throw new RuntimeException(
+                    String.format(
+                            "Provider %s.getCapability() returned null; return LazyOptional.empty() instead!",
+                            c.getClass().getTypeName()
+                    )
+            );
+        }
+        return ret;
+    }
+
+    private Lookup addLookup(@Nullable Capability<?> cap)
+    {
+        List<ICapabilityProvider> candidates = Lists.newArrayList();
+        for (ICapabilityProvider c : caps)
+        {
+            if (!(c instanceof IDeclaredCapabilityProvider) || ((IDeclaredCapabilityProvider)c).canExpose(cap))
+            {
+                candidates.add(c);
+            }
+        }
+        Lookup lookup = new Lookup(candidates.toArray(new ICapabilityProvider[candidates.size()]));
+        Map<Capability<?>, Lookup> next = new IdentityHashMap<>(lookups);
+        next.put(cap, lookup);
+        lookups = next;
+        return lookup;
+    }
+
     @Override
     public CompoundNBT serializeNBT()
     {
@@ -145,11 +212,42 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
     {                                                        // Only compares serializeable caps.
         if (other == null) return this.writers.length == 0;  // Done this way so we can do some pre-checks before doing the costly NBT serialization and compare
         if (this.writers.length == 0) return other.writers.length == 0;
+        if (Arrays.equals(this.names, other.names))          // Same attachments, so compare pairwise and only serialize the ones that can not compare themselves
+        {
+            for (int x = 0; x < writers.length; x++)
+            {
+                if (!areCompatible(writers[x], other.writers[x])) return false;
+            }
+            return true;
+        }
         return this.serializeNBT().equals(other.serializeNBT());
     }
 
+    private static boolean areCompatible(INBTSerializable<INBT> writer, INBTSerializable<INBT> other)
+    {
+        if (writer instanceof IComparableCapabilityProvider) // Writers are always providers, see the constructor
+        {
+            return ((IComparableCapabilityProvider)writer).isCompatible((ICapabilityProvider)other);
+        }
+        return Objects.equals(writer.serializeNBT(), other.serializeNBT());
+    }
+
     public void invalidate()
     {
+        this.lookups = Collections.emptyMap();
         this.listeners.forEach(Runnable::run);
     }
+
+    private static final class Lookup
+    {
+        private static final int NULL_SIDE = Direction.values().length;
+
+        private final ICapabilityProvider[] candidates;
+        private final LazyOptional<?>[] resolved = new LazyOptional<?>[NULL_SIDE + 1];
+
+        private Lookup(ICapabilityProvider[] candidates)
+        {
+            this.candidates = candidates;
+        }
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.capabilities;
+
+/**
+ * Opt-in for serializable capability providers attached to ItemStacks.
+ *
+ * When two stacks are compared, {@link CapabilityDispatcher#areCompatible} normally serializes
+ * every provider to NBT and compares the results. Providers implementing this are asked directly
+ * instead, which avoids building NBT on every stack merge, hopper transfer and container sync.
+ */
+public interface IComparableCapabilityProvider extends ICapabilityProvider
+{
+    /**
+     * @param other The provider attached under the same name to the other stack.
+     *   Usually, but not necessarily, of the same class as this one.
+     * @return true exactly when serializing both providers would produce equal NBT.
+     */
+    boolean isCompatible(ICapabilityProvider other);
+}
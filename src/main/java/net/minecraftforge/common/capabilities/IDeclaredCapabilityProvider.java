@@ -0,0 +1,45 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.capabilities;
+
+import javax.annotation.Nullable;
+
+/**
+ * A capability provider that knows up front which capabilities it can ever expose.
+ *
+ * When attached through the AttachCapabilitiesEvent, the {@link CapabilityDispatcher}
+ * uses this to skip the provider entirely when looking up any other capability.
+ *
+ * Implementing this also promises that a present LazyOptional returned for a capability and side
+ * stays the answer until it is invalidated, so the dispatcher may hand it out again without asking.
+ * Providers that change what they expose on a side (for example when rotated) must invalidate the
+ * old optional first.
+ */
+public interface IDeclaredCapabilityProvider extends ICapabilityProvider
+{
+    /**
+     * The result of this method <strong>MUST</strong> never change over the lifetime of the provider,
+     * it is only queried once per capability and then remembered.
+     *
+     * @param cap The capability to check, <strong>CAN BE NULL</strong> if it was never registered.
+     * @return false if {@link #getCapability} will never return a present value for this capability on any side.
+     */
+    boolean canExpose(@Nullable Capability<?> cap);
+}
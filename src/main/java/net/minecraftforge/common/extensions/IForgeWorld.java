@@ -20,13 +20,18 @@
 package net.minecraftforge.common.extensions;
 
 import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.world.OversizedEntityIndex;
 
 public interface IForgeWorld extends ICapabilityProvider
 {
     /**
      * The maximum radius to scan for entities when trying to check bounding boxes. Vanilla's default is
      * 2.0D But mods that add larger entities may increase this.
+     *
+     * @deprecated No longer used by the entity queries, entities larger than their search margin are tracked
+     * automatically by {@link #getOversizedEntities()}.
      */
+    @Deprecated
     public double getMaxEntityRadius();
     /**
      * Increases the max entity radius, this is safe to call with any value.
@@ -34,6 +39,13 @@ public interface IForgeWorld extends ICapabilityProvider
      *
      * @param value New max radius to set.
      * @return The new max radius
+     * @deprecated No longer needed, see {@link #getMaxEntityRadius()}.
      */
+    @Deprecated
     public double increaseMaxEntityRadius(double value);
+    /**
+     * The entities of this world that are too large to be found by scanning the chunks around a searched box,
+     * which the entity queries check in addition to the chunks they scan.
+     */
+    public OversizedEntityIndex getOversizedEntities();
 }
@@ -0,0 +1,120 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Keeps the {@link IContentsListener}s of a handler and collects its changed slots or tanks until they are delivered.
+ * <br>
+ * Changes made between {@link #beginBatch()} and {@link #endBatch()} are delivered together, other changes right away.
+ * Not thread safe, like the handlers using it.
+ */
+public class ContentsListeners implements IContentsChangeNotifier
+{
+    private static final IContentsListener[] NONE = new IContentsListener[0];
+
+    private IContentsListener[] listeners = NONE;
+    private final BitSet changed = new BitSet();
+    private final BitSet delivering = new BitSet();
+    private int batchDepth;
+    private boolean firing;
+
+    @Override
+    public void addContentsListener(IContentsListener listener)
+    {
+        this.listeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        this.listeners[this.listeners.length - 1] = listener;
+    }
+
+    @Override
+    public void removeContentsListener(IContentsListener listener)
+    {
+        for (int i = 0; i < this.listeners.length; i++)
+        {
+            if (this.listeners[i] == listener)
+            {
+                IContentsListener[] listeners = new IContentsListener[this.listeners.length - 1];
+                System.arraycopy(this.listeners, 0, listeners, 0, i);
+                System.arraycopy(this.listeners, i + 1, listeners, i, listeners.length - i);
+                this.listeners = listeners;
+                return;
+            }
+        }
+    }
+
+    public boolean hasListeners()
+    {
+        return this.listeners.length > 0;
+    }
+
+    public void changed(int index)
+    {
+        if (!hasListeners())
+            return;
+        this.changed.set(index);
+        if (this.batchDepth == 0)
+            deliver();
+    }
+
+    public void changed(int fromIndex, int toIndex)
+    {
+        if (!hasListeners() || fromIndex >= toIndex)
+            return;
+        this.changed.set(fromIndex, toIndex);
+        if (this.batchDepth == 0)
+            deliver();
+    }
+
+    public void beginBatch()
+    {
+        this.batchDepth++;
+    }
+
+    public void endBatch()
+    {
+        if (--this.batchDepth == 0)
+            deliver();
+    }
+
+    private void deliver()
+    {
+        // Changes made by the listeners themselves are delivered after the current ones
+        if (this.firing)
+            return;
+        this.firing = true;
+        try
+        {
+            while (!this.changed.isEmpty())
+            {
+                this.delivering.clear();
+                this.delivering.or(this.changed);
+                this.changed.clear();
+                for (IContentsListener listener : this.listeners)
+                    listener.onContentsChanged(this.delivering);
+            }
+        }
+        finally
+        {
+            this.firing = false;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.util;
+
+/**
+ * Implemented by item and fluid handlers that report changes of their contents, so code watching many of them
+ * doesn't have to compare their contents every tick.
+ * <br>
+ * Listeners are called on the thread changing the handler, once per operation with every slot or tank it changed.
+ * Check the object returned by a capability for this interface to know if it can be watched.
+ */
+public interface IContentsChangeNotifier
+{
+    void addContentsListener(IContentsListener listener);
+
+    void removeContentsListener(IContentsListener listener);
+}
@@ -0,0 +1,34 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.util;
+
+import java.util.BitSet;
+
+/**
+ * Receives the slots or tanks of a handler that changed, see {@link IContentsChangeNotifier}.
+ */
+@FunctionalInterface
+public interface IContentsListener
+{
+    /**
+     * @param changed The indices of the slots or tanks that changed. Only valid during the call and must not be modified.
+     */
+    void onContentsChanged(BitSet changed);
+}
@@ -0,0 +1,262 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.boss.dragon.EnderDragonEntity;
+import net.minecraft.entity.boss.dragon.EnderDragonPartEntity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Keeps track of the entities of a world that are too large to be found by the regular entity queries.
+ *
+ * Entity queries only scan the chunk sections within {@link #SEARCH_MARGIN} blocks of the searched box, which misses
+ * entities whose bounding box reaches further than that from the section they are stored in. Instead of widening every
+ * query to the size of the largest entity, the world queries check the oversized entities held here individually,
+ * skipping those stored in a section the query already scanned.
+ *
+ * The entities are kept in a coarse grid by the chunk they are stored in, so a query only looks at the chunks within
+ * reach of the widest tracked entity instead of every oversized entity in the world.
+ */
+public class OversizedEntityIndex
+{
+    /** How far beyond the searched box the entity queries scan for entities. */
+    public static final double SEARCH_MARGIN = 2.0D;
+    // Entities are stored in the 16 block high sections of their chunk
+    private static final int MAX_SECTION = 15;
+
+    private final Long2ObjectMap<List<Entity>> cells = new Long2ObjectOpenHashMap<>();
+    private final Reference2LongMap<Entity> cellOf = new Reference2LongOpenHashMap<>();
+    // Half the width of the widest tracked entity, how far from its chunk an entity may reach horizontally
+    private double maxHalfWidth;
+
+    /**
+     * @return true if the entity does not fit in the box scanned around its position by the entity queries
+     */
+    public static boolean isOversized(Entity entity)
+    {
+        // Entities only extend upwards from the section holding their feet, which the queries look below by the margin alone
+        return entity.getWidth() > SEARCH_MARGIN * 2 || entity.getHeight() > SEARCH_MARGIN;
+    }
+
+    /**
+     * Starts or stops tracking the entity according to its current size. Called whenever an entity is added to the
+     * world or changes size while in it.
+     */
+    public void update(Entity entity)
+    {
+        if (!isOversized(entity))
+        {
+            remove(entity);
+            return;
+        }
+        if (cellOf.containsKey(entity))
+        {
+            move(entity);
+            updateMaxHalfWidth();
+        }
+        else
+        {
+            final long cell = getCell(entity);
+            cellOf.put(entity, cell);
+            cells.computeIfAbsent(cell, k -> new ArrayList<>()).add(entity);
+            maxHalfWidth = Math.max(maxHalfWidth, entity.getWidth() / 2);
+        }
+    }
+
+    /**
+     * Moves a tracked entity to the cell of the chunk it is stored in now. Called whenever an entity is added to a chunk.
+     */
+    public void move(Entity entity)
+    {
+        if (!cellOf.containsKey(entity))
+            return;
+        final long cell = getCell(entity);
+        final long old = cellOf.put(entity, cell);
+        if (old != cell)
+        {
+            removeFromCell(old, entity);
+            cells.computeIfAbsent(cell, k -> new ArrayList<>()).add(entity);
+        }
+    }
+
+    public void remove(Entity entity)
+    {
+        if (!cellOf.containsKey(entity))
+            return;
+        removeFromCell(cellOf.removeLong(entity), entity);
+        if (entity.getWidth() / 2 >= maxHalfWidth)
+            updateMaxHalfWidth();
+    }
+
+    public int size()
+    {
+        return cellOf.size();
+    }
+
+    private void removeFromCell(long cell, Entity entity)
+    {
+        final List<Entity> list = cells.get(cell);
+        if (list == null)
+            return;
+        list.remove(entity);
+        if (list.isEmpty())
+            cells.remove(cell);
+    }
+
+    private void updateMaxHalfWidth()
+    {
+        maxHalfWidth = 0;
+        for (Entity entity : cellOf.keySet())
+            maxHalfWidth = Math.max(maxHalfWidth, entity.getWidth() / 2);
+    }
+
+    private static long getCell(Entity entity)
+    {
+        return ChunkPos.asLong(entity.chunkCoordX, entity.chunkCoordZ);
+    }
+
+    /**
+     * Visits the tracked entities stored in the chunks from which the widest of them could reach into the box
+     */
+    private void forEachNear(AxisAlignedBB box, Consumer<Entity> action)
+    {
+        // The margin also covers entities which moved since their chunk was last updated, as it does for the regular queries
+        final double reach = maxHalfWidth + SEARCH_MARGIN;
+        final int minX = MathHelper.floor((box.minX - reach) / 16.0D);
+        final int maxX = MathHelper.floor((box.maxX + reach) / 16.0D);
+        final int minZ = MathHelper.floor((box.minZ - reach) / 16.0D);
+        final int maxZ = MathHelper.floor((box.maxZ + reach) / 16.0D);
+        if ((long)(maxX - minX + 1) * (maxZ - minZ + 1) > cells.size())
+        {
+            // Fewer occupied cells than cells in range, as for a very large box
+            for (List<Entity> list : cells.values())
+            {
+                for (Entity entity : list)
+                {
+                    if (entity.chunkCoordX >= minX && entity.chunkCoordX <= maxX && entity.chunkCoordZ >= minZ && entity.chunkCoordZ <= maxZ)
+                        action.accept(entity);
+                }
+            }
+            return;
+        }
+        for (int x = minX; x <= maxX; x++)
+        {
+            for (int z = minZ; z <= maxZ; z++)
+            {
+                final List<Entity> list = cells.get(ChunkPos.asLong(x, z));
+                if (list != null)
+                    list.forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Adds the oversized entities found by {@link net.minecraft.world.World#getEntitiesInAABBexcluding} that are stored
+     * outside of the given inclusive range of scanned chunks.
+     */
+    public void getEntitiesInAABBexcluding(@Nullable Entity except, AxisAlignedBB box, int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ, List<Entity> list, @Nullable Predicate<? super Entity> filter)
+    {
+        if (cells.isEmpty()) return;
+        final int minSection = getMinSection(box);
+        final int maxSection = getMaxSection(box);
+        forEachNear(box, entity -> {
+            if (isScanned(entity, minChunkX, maxChunkX, minSection, maxSection, minChunkZ, maxChunkZ))
+                return;
+            if (entity != except && entity.getBoundingBox().intersects(box) && (filter == null || filter.test(entity)))
+                list.add(entity);
+            if (entity instanceof EnderDragonEntity)
+            {
+                for (EnderDragonPartEntity part : ((EnderDragonEntity)entity).getDragonParts())
+                {
+                    if (part != except && part.getBoundingBox().intersects(box) && (filter == null || filter.test(part)))
+                        list.add(part);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds the oversized entities found by {@link net.minecraft.world.World#getEntitiesWithinAABB(EntityType, AxisAlignedBB, Predicate)}
+     * that are stored outside of the given inclusive range of scanned chunks.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Entity> void getEntitiesWithinAABB(@Nullable EntityType<?> type, AxisAlignedBB box, int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ, List<? super T> list, Predicate<? super T> filter)
+    {
+        if (cells.isEmpty()) return;
+        final int minSection = getMinSection(box);
+        final int maxSection = getMaxSection(box);
+        forEachNear(box, entity -> {
+            if ((type == null || entity.getType() == type) && !isScanned(entity, minChunkX, maxChunkX, minSection, maxSection, minChunkZ, maxChunkZ) &&
+                entity.getBoundingBox().intersects(box) && filter.test((T)entity))
+                list.add((T)entity);
+        });
+    }
+
+    /**
+     * Adds the oversized entities found by {@link net.minecraft.world.World#getEntitiesWithinAABB(Class, AxisAlignedBB, Predicate)}
+     * that are stored outside of the given inclusive range of scanned chunks.
+     */
+    public <T extends Entity> void getEntitiesWithinAABB(Class<? extends T> clazz, AxisAlignedBB box, int minChunkX, int maxChunkX, int minChunkZ, int maxChunkZ, List<T> list, @Nullable Predicate<? super T> filter)
+    {
+        if (cells.isEmpty()) return;
+        final int minSection = getMinSection(box);
+        final int maxSection = getMaxSection(box);
+        forEachNear(box, entity -> {
+            if (!clazz.isInstance(entity) || isScanned(entity, minChunkX, maxChunkX, minSection, maxSection, minChunkZ, maxChunkZ) || !entity.getBoundingBox().intersects(box))
+                return;
+            final T t = clazz.cast(entity);
+            if (filter == null || filter.test(t))
+                list.add(t);
+        });
+    }
+
+    // Entities outside of any chunk are never found by the queries, those in a section visited by the chunk scan already were
+    private static boolean isScanned(Entity entity, int minChunkX, int maxChunkX, int minSection, int maxSection, int minChunkZ, int maxChunkZ)
+    {
+        return !entity.addedToChunk ||
+            entity.chunkCoordX >= minChunkX && entity.chunkCoordX <= maxChunkX &&
+            entity.chunkCoordY >= minSection && entity.chunkCoordY <= maxSection &&
+            entity.chunkCoordZ >= minChunkZ && entity.chunkCoordZ <= maxChunkZ;
+    }
+
+    private static int getMinSection(AxisAlignedBB box)
+    {
+        return MathHelper.clamp(MathHelper.floor((box.minY - SEARCH_MARGIN) / 16.0D), 0, MAX_SECTION);
+    }
+
+    private static int getMaxSection(AxisAlignedBB box)
+    {
+        return MathHelper.clamp(MathHelper.floor((box.maxY + SEARCH_MARGIN) / 16.0D), 0, MAX_SECTION);
+    }
+}
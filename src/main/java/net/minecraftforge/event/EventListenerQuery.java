@@ -0,0 +1,74 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.event;
+
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.eventbus.ListenerList;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.EventListenerHelper;
+import net.minecraftforge.eventbus.api.IEventBus;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Field;
+
+/**
+ * Cheap check for whether an event would reach any listener if it were posted to {@link MinecraftForge#EVENT_BUS}.
+ *
+ * Used by hot hooks to avoid allocating and posting an event nobody is listening to. Listeners registered
+ * for a super class of the event are taken into account. If the listener state of the bus cannot be inspected
+ * every query answers {@code true}, so callers always fall back to posting the event.
+ */
+public class EventListenerQuery
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int FORGE_BUS_ID = getBusId(MinecraftForge.EVENT_BUS);
+    private static final ClassValue<ListenerList> LISTENER_LISTS = new ClassValue<ListenerList>()
+    {
+        @Override
+        protected ListenerList computeValue(Class<?> type)
+        {
+            return EventListenerHelper.getListenerList(type);
+        }
+    };
+
+    /**
+     * @return true if posting an event of the given type to {@link MinecraftForge#EVENT_BUS} may invoke a listener
+     */
+    public static boolean hasListeners(Class<? extends Event> type)
+    {
+        return FORGE_BUS_ID < 0 || LISTENER_LISTS.get(type).getListeners(FORGE_BUS_ID).length > 0;
+    }
+
+    private static int getBusId(IEventBus bus)
+    {
+        try
+        {
+            Field field = bus.getClass().getDeclaredField("busID");
+            field.setAccessible(true);
+            return field.getInt(bus);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            LOGGER.warn("Unable to inspect the listeners of {}, events will always be posted", bus, e);
+            return -1;
+        }
+    }
+}
@@ -96,6 +96,7 @@ import net.minecraftforge.common.util.BlockSnapshot;
 import net.minecraftforge.event.brewing.PlayerBrewedPotionEvent;
 import net.minecraftforge.event.brewing.PotionBrewEvent;
 import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.EntityMobGriefingEvent;
 import net.minecraftforge.event.entity.EntityMountEvent;
 import net.minecraftforge.event.entity.EntityStruckByLightningEvent;
@@ -167,6 +168,18 @@ public class ForgeEventFactory
         return event;
     }
 
+    /**
+     * Fires {@link NeighborNotifyEvent} for the sides in the given {@link NeighborNotifyEvent#getSideMask(Direction) bitmask}.
+     * Neither the event nor the block state lookup happen when nothing listens to the event.
+     *
+     * @return true if the neighbor notification was canceled
+     */
+    public static boolean onNeighborNotify(World world, BlockPos pos, int notifiedSides, boolean forceRedstoneUpdate)
+    {
+        if (!EventListenerQuery.hasListeners(NeighborNotifyEvent.class)) return false;
+        return MinecraftForge.EVENT_BUS.post(new NeighborNotifyEvent(world, pos, world.getBlockState(pos), notifiedSides, forceRedstoneUpdate));
+    }
+
     public static boolean doPlayerHarvestCheck(PlayerEntity player, BlockState state, boolean success)
     {
         PlayerEvent.HarvestCheck event = new PlayerEvent.HarvestCheck(player, state, success);
@@ -176,6 +189,7 @@ public class ForgeEventFactory
 
     public static float getBreakSpeed(PlayerEntity player, BlockState state, float original, BlockPos pos)
     {
+        if (!EventListenerQuery.hasListeners(PlayerEvent.BreakSpeed.class)) return original;
         PlayerEvent.BreakSpeed event = new PlayerEvent.BreakSpeed(player, state, original, pos);
         return (MinecraftForge.EVENT_BUS.post(event) ? -1 : event.getNewSpeed());
     }
@@ -187,7 +201,7 @@ public class ForgeEventFactory
 
     public static Result canEntitySpawn(MobEntity entity, IWorld world, double x, double y, double z, AbstractSpawner spawner, SpawnReason spawnReason)
     {
-        if (entity == null)
+        if (entity == null || !EventListenerQuery.hasListeners(LivingSpawnEvent.CheckSpawn.class))
             return Result.DEFAULT;
         LivingSpawnEvent.CheckSpawn event = new LivingSpawnEvent.CheckSpawn(entity, world, x, y, z, spawner, spawnReason);
         MinecraftForge.EVENT_BUS.post(event);
@@ -281,6 +295,11 @@ public class ForgeEventFactory
         return MinecraftForge.EVENT_BUS.post(new EntityStruckByLightningEvent(entity, bolt));
     }
 
+    public static boolean onEntityJoinWorld(Entity entity, World world)
+    {
+        return EventListenerQuery.hasListeners(EntityJoinWorldEvent.class) && MinecraftForge.EVENT_BUS.post(new EntityJoinWorldEvent(entity, world));
+    }
+
     public static int onItemUseStart(LivingEntity entity, ItemStack item, int duration)
     {
         LivingEntityUseItemEvent event = new LivingEntityUseItemEvent.Start(entity, item, duration);
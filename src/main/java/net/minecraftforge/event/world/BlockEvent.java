@@ -207,13 +207,23 @@ public class BlockEvent extends Event
     @Cancelable
     public static class NeighborNotifyEvent extends BlockEvent
     {
-        private final EnumSet<Direction> notifiedSides;
+        /** Bitmask of every {@link Direction}, see {@link #getNotifiedSidesMask()}. */
+        public static final int ALL_SIDES = (1 << Direction.values().length) - 1;
+
+        private final int notifiedSidesMask;
+        private EnumSet<Direction> notifiedSides;
         private final boolean forceRedstoneUpdate;
 
         public NeighborNotifyEvent(World world, BlockPos pos, BlockState state, EnumSet<Direction> notifiedSides, boolean forceRedstoneUpdate)
         {
-            super(world, pos, state);
+            this(world, pos, state, toMask(notifiedSides), forceRedstoneUpdate);
             this.notifiedSides = notifiedSides;
+        }
+
+        public NeighborNotifyEvent(World world, BlockPos pos, BlockState state, int notifiedSidesMask, boolean forceRedstoneUpdate)
+        {
+            super(world, pos, state);
+            this.notifiedSidesMask = notifiedSidesMask & ALL_SIDES;
             this.forceRedstoneUpdate = forceRedstoneUpdate;
         }
 
@@ -224,9 +234,32 @@ public class BlockEvent extends Event
          */
         public EnumSet<Direction> getNotifiedSides()
         {
+            if (notifiedSides == null)
+            {
+                // Only built on demand, so firing the event does not need to allocate a set
+                notifiedSides = EnumSet.noneOf(Direction.class);
+                for (Direction side : Direction.values())
+                {
+                    if (isSideNotified(side))
+                        notifiedSides.add(side);
+                }
+            }
             return notifiedSides;
         }
 
+        /**
+         * @return bitmask of the notified directions, with bit {@code 1 << side.ordinal()} set for each notified side
+         */
+        public int getNotifiedSidesMask()
+        {
+            return notifiedSidesMask;
+        }
+
+        public boolean isSideNotified(Direction side)
+        {
+            return (notifiedSidesMask & getSideMask(side)) != 0;
+        }
+
         /**
          * Get if redstone update was forced during setBlock call (0x16 to flags)
          * @return if the flag was set
@@ -235,6 +268,19 @@ public class BlockEvent extends Event
         {
             return forceRedstoneUpdate;
         }
+
+        public static int getSideMask(Direction side)
+        {
+            return 1 << side.ordinal();
+        }
+
+        private static int toMask(EnumSet<Direction> sides)
+        {
+            int mask = 0;
+            for (Direction side : sides)
+                mask |= getSideMask(side);
+            return mask;
+        }
     }
 
     /**
@@ -0,0 +1,98 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fluids;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.nbt.CompoundNBT;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The identity of a {@link FluidStack}, its fluid and tag without the amount.
+ * <br>
+ * Keys are interned, so two keys are equal exactly if they are the same instance. See {@link FluidStack#getKey()}.
+ */
+public final class FluidKey
+{
+    private static final Map<Fluid, FluidKey> UNTAGGED = new ConcurrentHashMap<>();
+    private static final Interner<FluidKey> TAGGED = Interners.newWeakInterner();
+
+    private final Fluid fluid;
+    @Nullable
+    private final CompoundNBT tag;
+    private final int hash;
+
+    private FluidKey(Fluid fluid, @Nullable CompoundNBT tag)
+    {
+        this.fluid = fluid;
+        this.tag = tag;
+        this.hash = 31 * fluid.hashCode() + (tag == null ? 0 : tag.hashCode());
+    }
+
+    /**
+     * @param tag Copied by the key, so it may be modified afterwards
+     */
+    public static FluidKey of(@Nonnull Fluid fluid, @Nullable CompoundNBT tag)
+    {
+        if (tag == null)
+            return UNTAGGED.computeIfAbsent(fluid, f -> new FluidKey(f, null));
+        return TAGGED.intern(new FluidKey(fluid, tag.copy()));
+    }
+
+    public Fluid getFluid()
+    {
+        return fluid;
+    }
+
+    public boolean hasTag()
+    {
+        return tag != null;
+    }
+
+    /**
+     * @return A new stack of this fluid and tag
+     */
+    public FluidStack toStack(int amount)
+    {
+        return new FluidStack(fluid, amount, tag);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o)
+            return true;
+        if (!(o instanceof FluidKey))
+            return false;
+        FluidKey other = (FluidKey) o;
+        return hash == other.hash && fluid == other.fluid && (tag == null ? other.tag == null : tag.equals(other.tag));
+    }
+}
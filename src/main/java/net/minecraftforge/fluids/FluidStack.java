@@ -71,6 +71,9 @@ public class FluidStack
     private int amount;
     private CompoundNBT tag;
     private IRegistryDelegate<Fluid> fluidDelegate;
+    // Only set by getKey, and cleared whenever the tag is handed out or replaced, as it may be changed afterwards
+    @Nullable
+    private FluidKey key;
 
     public FluidStack(Fluid fluid, int amount)
     {
@@ -103,6 +106,8 @@ public class FluidStack
     public FluidStack(FluidStack stack, int amount)
     {
         this(stack.getFluid(), amount, stack.tag);
+        if (!stack.isEmpty())
+            this.key = stack.key;
     }
 
     /**
@@ -208,6 +213,7 @@ public class FluidStack
 
     public CompoundNBT getTag()
     {
+        key = null;
         return tag;
     }
 
@@ -215,12 +221,14 @@ public class FluidStack
     {
         if (getRawFluid() == Fluids.EMPTY) throw new IllegalStateException("Can't modify the empty stack.");
         this.tag = tag;
+        this.key = null;
     }
 
     public CompoundNBT getOrCreateTag()
     {
         if (tag == null)
             setTag(new CompoundNBT());
+        key = null;
         return tag;
     }
 
@@ -228,6 +236,7 @@ public class FluidStack
     {
         if (tag == null)
             return null;
+        key = null;
         return tag.getCompound(childName);
     }
 
@@ -245,7 +254,29 @@ public class FluidStack
     public void removeChildTag(String childName)
     {
         if (tag != null)
+        {
             tag.remove(childName);
+            key = null;
+        }
+    }
+
+    /**
+     * The interned identity of this stack's fluid and tag, which is computed once and kept until the tag is accessed
+     * through this stack again. Comparing keys is constant-time, and {@link #isFluidEqual(FluidStack)} compares two
+     * stacks by their keys if both have already been computed.
+     * <br>
+     * Only call this on stacks whose tag is not held anywhere else, such as the contents of your own tank:
+     * if a tag obtained from this stack before is modified afterwards, the key will be stale.
+     * Stacks which never had their key requested are always compared by their tags. The bulk transfers of
+     * {@link net.minecraftforge.fluids.capability.templates.FluidTank} cache the key of the tank's contents, and
+     * {@link FluidUtil#transferFluid} those of the source's contents.
+     */
+    public FluidKey getKey()
+    {
+        FluidKey key = this.key;
+        if (key == null)
+            this.key = key = FluidKey.of(getRawFluid(), tag);
+        return key;
     }
 
     public ITextComponent getDisplayName()
@@ -263,7 +294,10 @@ public class FluidStack
      */
     public FluidStack copy()
     {
-        return new FluidStack(getFluid(), amount, tag);
+        FluidStack copy = new FluidStack(getFluid(), amount, tag);
+        if (!isEmpty)
+            copy.key = key;
+        return copy;
     }
 
     /**
@@ -280,7 +314,12 @@ public class FluidStack
 
     private boolean isFluidStackTagEqual(FluidStack other)
     {
-        return tag == null ? other.tag == null : other.tag != null && tag.equals(other.tag);
+        if (tag == null || other.tag == null || tag == other.tag)
+            return tag == other.tag;
+        // Keys also hold the fluid, so they only tell the tags apart for stacks of the same fluid
+        if (key != null && other.key != null && getRawFluid() == other.getRawFluid())
+            return key == other.key;
+        return tag.equals(other.tag);
     }
 
     /**
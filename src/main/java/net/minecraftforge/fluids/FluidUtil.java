@@ -42,16 +42,22 @@ import net.minecraft.world.World;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
 import net.minecraftforge.fluids.capability.IFluidHandler;
+import net.minecraftforge.fluids.capability.IFluidHandlerBulk;
 import net.minecraftforge.fluids.capability.IFluidHandlerItem;
 import net.minecraftforge.fluids.capability.wrappers.BlockWrapper;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.Optional;
+import java.util.function.Predicate;
 
 public class FluidUtil
 {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     private FluidUtil()
     {
     }
@@ -410,6 +416,84 @@ public class FluidUtil
         return FluidStack.EMPTY;
     }
 
+    /**
+     * Moves up to {@code maxAmount} of the fluids accepted by the filter from one fluid handler to another, going
+     * through the tanks of the source in order.
+     * <br>
+     * Unlike {@link #tryFluidTransfer(IFluidHandler, IFluidHandler, int, boolean)} the amount is negotiated from the
+     * source's tank contents, and handlers implementing {@link IFluidHandlerBulk} move it by amount, with one copy of
+     * the contents per tank as the template. The source is drained before the destination is filled, and only what was
+     * actually drained is filled. Fluid the destination refuses after all is put back into the source.
+     * <br>
+     * The {@link FluidStack#getKey() keys} of the source's tank contents are cached, which their handler must not
+     * modify anyway, so repeated transfers compare fluids without walking their tags.
+     *
+     * @param filter Tested with the contents of each tank of the source, which must not be modified
+     * @return The amount of fluid moved
+     */
+    public static int transferFluid(IFluidHandler source, IFluidHandler dest, Predicate<FluidStack> filter, int maxAmount)
+    {
+        if (source == dest)
+            return 0;
+
+        int moved = 0;
+        for (int tank = 0; tank < source.getTanks() && moved < maxAmount; tank++)
+        {
+            FluidStack contained = source.getFluidInTank(tank);
+            if (contained.isEmpty() || !filter.test(contained))
+                continue;
+            // Cache the key of the contents, so the tanks below compare them by key
+            contained.getKey();
+
+            int fillable = fillAmount(dest, contained, maxAmount - moved, IFluidHandler.FluidAction.SIMULATE);
+            if (fillable <= 0)
+                continue;
+            int drainable = drainAmount(source, contained, fillable, IFluidHandler.FluidAction.SIMULATE);
+            if (drainable <= 0)
+                continue;
+
+            // Draining may change the contents, so a copy sharing their key serves as the template
+            FluidStack template = contained.copy();
+            int drained = drainAmount(source, template, drainable, IFluidHandler.FluidAction.EXECUTE);
+            if (drained <= 0)
+                continue;
+            int filled = fillAmount(dest, template, drained, IFluidHandler.FluidAction.EXECUTE);
+            if (filled < drained)
+            {
+                // The destination took less than it simulated, return the rest to where it came from
+                int returned = fillAmount(source, template, drained - filled, IFluidHandler.FluidAction.EXECUTE);
+                if (returned < drained - filled)
+                    LOGGER.warn("Unable to return {} mB of {} to the source after a failed transfer", drained - filled - returned, template.getFluid().getRegistryName());
+            }
+            moved += filled;
+        }
+        return moved;
+    }
+
+    /**
+     * Fills up to {@code amount} of the resource's fluid, see {@link IFluidHandlerBulk#fillAmount(FluidStack, int, IFluidHandler.FluidAction)}.
+     */
+    public static int fillAmount(IFluidHandler handler, @Nonnull FluidStack resource, int amount, IFluidHandler.FluidAction action)
+    {
+        if (amount <= 0 || resource.isEmpty())
+            return 0;
+        if (handler instanceof IFluidHandlerBulk)
+            return ((IFluidHandlerBulk) handler).fillAmount(resource, amount, action);
+        return handler.fill(new FluidStack(resource, amount), action);
+    }
+
+    /**
+     * Drains up to {@code amount} of the resource's fluid, see {@link IFluidHandlerBulk#drainAmount(FluidStack, int, IFluidHandler.FluidAction)}.
+     */
+    public static int drainAmount(IFluidHandler handler, @Nonnull FluidStack resource, int amount, IFluidHandler.FluidAction action)
+    {
+        if (amount <= 0 || resource.isEmpty())
+            return 0;
+        if (handler instanceof IFluidHandlerBulk)
+            return ((IFluidHandlerBulk) handler).drainAmount(resource, amount, action);
+        return handler.drain(new FluidStack(resource, amount), action).getAmount();
+    }
+
     /**
      * Helper method to get an {@link IFluidHandlerItem} for an itemStack.
      *
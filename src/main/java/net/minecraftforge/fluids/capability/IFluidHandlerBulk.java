@@ -0,0 +1,57 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fluids.capability;
+
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidUtil;
+
+import javax.annotation.Nonnull;
+import java.util.function.Predicate;
+
+/**
+ * An {@link IFluidHandler} that can be filled and drained by amount, without creating a {@link FluidStack} for every
+ * step of a transfer.
+ * <br>
+ * Used by {@link FluidUtil#transferFluid(IFluidHandler, IFluidHandler, Predicate, int)}, which falls back to the plain
+ * {@link IFluidHandler} methods for handlers not implementing this.
+ */
+public interface IFluidHandlerBulk extends IFluidHandler
+{
+    /**
+     * Fills fluid into internal tanks, as {@link #fill(FluidStack, FluidAction)} would with a resource of the given amount.
+     *
+     * @param resource The fluid and tag to fill. Its amount is ignored, and it must neither be modified nor stored by the handler.
+     * @param amount   The largest amount to fill
+     * @param action   If SIMULATE, fill will only be simulated
+     * @return The amount of fluid that was (or would have been, if simulated) filled
+     */
+    int fillAmount(@Nonnull FluidStack resource, int amount, FluidAction action);
+
+    /**
+     * Drains fluid out of internal tanks, as {@link #drain(FluidStack, FluidAction)} would with a resource of the given
+     * amount, without returning the drained fluid as a stack.
+     *
+     * @param resource The fluid and tag to drain. Its amount is ignored, and it must not be modified by the handler.
+     * @param amount   The largest amount to drain
+     * @param action   If SIMULATE, drain will only be simulated
+     * @return The amount of fluid that was (or would have been, if simulated) drained
+     */
+    int drainAmount(@Nonnull FluidStack resource, int amount, FluidAction action);
+}
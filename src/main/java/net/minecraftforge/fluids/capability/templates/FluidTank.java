@@ -20,10 +20,14 @@
 package net.minecraftforge.fluids.capability.templates;
 
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraftforge.common.util.ContentsListeners;
+import net.minecraftforge.common.util.IContentsChangeNotifier;
+import net.minecraftforge.common.util.IContentsListener;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.IFluidTank;
 import net.minecraftforge.fluids.capability.IFluidHandler;
 import net.minecraftforge.fluids.capability.IFluidHandler.FluidAction;
+import net.minecraftforge.fluids.capability.IFluidHandlerBulk;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -34,12 +38,33 @@ import java.util.function.Predicate;
  *
  * @author King Lemming
  */
-public class FluidTank implements IFluidHandler, IFluidTank {
+public class FluidTank implements IFluidHandler, IFluidHandlerBulk, IFluidTank, IContentsChangeNotifier {
+
+    // Subclasses with their own filling or draining rules must keep going through them
+    private static final ClassValue<Boolean> BULK_TRANSFER = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                return type.getMethod("fill", FluidStack.class, FluidAction.class).getDeclaringClass() == FluidTank.class &&
+                       type.getMethod("drain", FluidStack.class, FluidAction.class).getDeclaringClass() == FluidTank.class &&
+                       type.getMethod("drain", int.class, FluidAction.class).getDeclaringClass() == FluidTank.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return false;
+            }
+        }
+    };
 
     protected Predicate<FluidStack> validator;
     @Nonnull
     protected FluidStack fluid = FluidStack.EMPTY;
     protected int capacity;
+    @Nullable
+    private ContentsListeners contentsListeners;
 
     public FluidTank(int capacity)
     {
@@ -148,7 +173,7 @@ public class FluidTank implements IFluidHandler, IFluidTank {
         if (fluid.isEmpty())
         {
             fluid = new FluidStack(resource, Math.min(capacity, resource.getAmount()));
-            onContentsChanged();
+            contentsChanged();
             return fluid.getAmount();
         }
         if (!fluid.isFluidEqual(resource))
@@ -167,7 +192,7 @@ public class FluidTank implements IFluidHandler, IFluidTank {
             fluid.setAmount(capacity);
         }
         if (filled > 0)
-            onContentsChanged();
+            contentsChanged();
         return filled;
     }
 
@@ -195,19 +220,113 @@ public class FluidTank implements IFluidHandler, IFluidTank {
         if (action.execute() && drained > 0)
         {
             fluid.shrink(drained);
-            onContentsChanged();
+            contentsChanged();
         }
         return stack;
     }
 
+    // The tank owns its contents, so their key is cached and compared against resources which cached theirs as well
+    private boolean isSameFluid(FluidStack resource)
+    {
+        if (!fluid.isEmpty())
+            fluid.getKey();
+        return fluid.isFluidEqual(resource);
+    }
+
+    @Override
+    public int fillAmount(@Nonnull FluidStack resource, int amount, FluidAction action)
+    {
+        if (resource.isEmpty() || amount <= 0)
+        {
+            return 0;
+        }
+        if (!BULK_TRANSFER.get(getClass()))
+        {
+            return fill(new FluidStack(resource, amount), action);
+        }
+        if (!isFluidValid(resource))
+        {
+            return 0;
+        }
+        if (fluid.isEmpty())
+        {
+            int filled = Math.min(capacity, amount);
+            if (action.execute() && filled > 0)
+            {
+                fluid = new FluidStack(resource, filled);
+                contentsChanged();
+            }
+            return filled;
+        }
+        if (!isSameFluid(resource))
+        {
+            return 0;
+        }
+        int filled = Math.max(0, Math.min(capacity - fluid.getAmount(), amount));
+        if (action.execute() && filled > 0)
+        {
+            fluid.grow(filled);
+            contentsChanged();
+        }
+        return filled;
+    }
+
+    @Override
+    public int drainAmount(@Nonnull FluidStack resource, int amount, FluidAction action)
+    {
+        if (resource.isEmpty() || amount <= 0)
+        {
+            return 0;
+        }
+        if (!BULK_TRANSFER.get(getClass()))
+        {
+            return drain(new FluidStack(resource, amount), action).getAmount();
+        }
+        if (!isSameFluid(resource))
+        {
+            return 0;
+        }
+        int drained = Math.min(fluid.getAmount(), amount);
+        if (action.execute() && drained > 0)
+        {
+            fluid.shrink(drained);
+            contentsChanged();
+        }
+        return drained;
+    }
+
     protected void onContentsChanged()
     {
 
     }
 
+    private void contentsChanged()
+    {
+        onContentsChanged();
+        if (contentsListeners != null)
+            contentsListeners.changed(0);
+    }
+
+    @Override
+    public void addContentsListener(IContentsListener listener)
+    {
+        if (contentsListeners == null)
+            contentsListeners = new ContentsListeners();
+        contentsListeners.addContentsListener(listener);
+    }
+
+    @Override
+    public void removeContentsListener(IContentsListener listener)
+    {
+        if (contentsListeners != null)
+            contentsListeners.removeContentsListener(listener);
+    }
+
     public void setFluid(FluidStack stack)
     {
         this.fluid = stack;
+        if (contentsListeners != null)
+            contentsListeners.changed(0);
     }
 
     public boolean isEmpty()
@@ -72,7 +72,11 @@ public class AutomaticEventSubscriber
                 try
                 {
                     LOGGER.debug(LOADING, "Auto-subscribing {} to {}", ad.getClassType().getClassName(), busTarget);
-                    busTarget.bus().get().register(Class.forName(ad.getClassType().getClassName(), true, loader));
+                    final Class<?> clazz = Class.forName(ad.getClassType().getClassName(), true, loader);
+                    if (EventListenerTimings.ENABLED)
+                        EventListenerTimings.register(busTarget.bus().get(), clazz, modId);
+                    else
+                        busTarget.bus().get().register(clazz);
                 }
                 catch (ClassNotFoundException e)
                 {
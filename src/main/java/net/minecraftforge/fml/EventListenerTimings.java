@@ -0,0 +1,263 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml;
+
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.GenericEvent;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static net.minecraftforge.fml.Logging.LOADING;
+
+/**
+ * Opt-in per listener timing of mod event handlers, enabled with {@code -Dforge.profileEventListeners=true}.
+ *
+ * When enabled, the static {@link SubscribeEvent} methods of {@link net.minecraftforge.fml.common.Mod.EventBusSubscriber}
+ * classes are registered as individually timed listeners instead of through {@link IEventBus#register(Object)}, and the
+ * time each mod spends handling events on its own mod event bus is recorded. Listeners added directly through
+ * {@link IEventBus#addListener(Consumer)} or by registering an instance are not covered.
+ */
+public class EventListenerTimings
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("forge.profileEventListeners", "false"));
+    /** Listener name used for the time spent dispatching a whole event on a mod's event bus. */
+    public static final String MOD_BUS = "<mod event bus>";
+
+    private static final Map<Key, Entry> TIMINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Register the static event handlers of the given class, wrapping each in a timer.
+     * Behaves like {@link IEventBus#register(Object)} for a class, except that it cannot be undone with
+     * {@link IEventBus#unregister(Object)}.
+     */
+    public static void register(final IEventBus bus, final Class<?> clazz, final String modId)
+    {
+        for (Method method : clazz.getMethods())
+        {
+            if (!Modifier.isStatic(method.getModifiers()) || !method.isAnnotationPresent(SubscribeEvent.class))
+                continue;
+            final Class<?>[] params = method.getParameterTypes();
+            if (params.length != 1 || !Event.class.isAssignableFrom(params[0]))
+                throw new IllegalArgumentException("Method " + method + " has @SubscribeEvent annotation, but requires " + params.length + " arguments. Event handler methods must require a single argument only.");
+            registerListener(bus, method, modId);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void registerListener(final IEventBus bus, final Method method, final String modId)
+    {
+        final SubscribeEvent subscribe = method.getAnnotation(SubscribeEvent.class);
+        final Class<Event> eventType = (Class<Event>)method.getParameterTypes()[0];
+        final MethodHandle handle;
+        try
+        {
+            handle = MethodHandles.publicLookup().unreflect(method);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new IllegalArgumentException("Unable to access event handler " + method, e);
+        }
+        final Entry entry = entry(modId, method.getDeclaringClass().getName() + "." + method.getName(), eventType);
+        final Consumer<Event> listener = event -> {
+            final long start = System.nanoTime();
+            try
+            {
+                handle.invoke(event);
+            }
+            catch (Throwable t)
+            {
+                EventListenerTimings.<RuntimeException>sneakyThrow(t);
+            }
+            finally
+            {
+                entry.record(System.nanoTime() - start);
+            }
+        };
+        if (GenericEvent.class.isAssignableFrom(eventType))
+        {
+            final Type type = method.getGenericParameterTypes()[0];
+            if (!(type instanceof ParameterizedType))
+                throw new IllegalArgumentException("Generic event handler " + method + " must specify the generic type of its event");
+            Type filter = ((ParameterizedType)type).getActualTypeArguments()[0];
+            if (filter instanceof ParameterizedType)
+                filter = ((ParameterizedType)filter).getRawType();
+            bus.addGenericListener((Class)filter, subscribe.priority(), subscribe.receiveCanceled(), (Class)eventType, (Consumer)listener);
+        }
+        else
+        {
+            bus.addListener(subscribe.priority(), subscribe.receiveCanceled(), eventType, listener);
+        }
+        LOGGER.debug(LOADING, "Registered timed event listener {} for {}", entry.listener, modId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> void sneakyThrow(Throwable t) throws T
+    {
+        throw (T)t;
+    }
+
+    /**
+     * @return the timing entry for a listener of a mod, shared by every caller asking for the same listener and event
+     */
+    public static Entry entry(final String modId, final String listener, final Class<?> eventType)
+    {
+        return TIMINGS.computeIfAbsent(new Key(modId, listener, eventType), k -> new Entry(modId, listener, eventType));
+    }
+
+    /**
+     * @return all entries which have been invoked at least once, most expensive first
+     */
+    public static List<Entry> getTimings()
+    {
+        final List<Entry> ret = new ArrayList<>();
+        for (Entry entry : TIMINGS.values())
+        {
+            if (entry.getCount() > 0)
+                ret.add(entry);
+        }
+        ret.sort(Comparator.comparingLong(Entry::getTotalNanos).reversed());
+        return ret;
+    }
+
+    /**
+     * @return the total time each mod has spent in listeners which receive the given event type, in nanoseconds
+     */
+    public static Map<String, Long> getTotalNanosByMod(final Class<? extends Event> eventType)
+    {
+        final Map<String, Long> ret = new HashMap<>();
+        for (Entry entry : TIMINGS.values())
+        {
+            if (!MOD_BUS.equals(entry.listener) && entry.eventType.isAssignableFrom(eventType))
+                ret.merge(entry.modId, entry.getTotalNanos(), Long::sum);
+        }
+        return ret;
+    }
+
+    public static void reset()
+    {
+        TIMINGS.values().forEach(Entry::reset);
+    }
+
+    public static class Entry
+    {
+        private final String modId;
+        private final String listener;
+        private final Class<?> eventType;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private Entry(String modId, String listener, Class<?> eventType)
+        {
+            this.modId = modId;
+            this.listener = listener;
+            this.eventType = eventType;
+        }
+
+        public void record(long nanos)
+        {
+            count.increment();
+            totalNanos.add(nanos);
+        }
+
+        private void reset()
+        {
+            count.reset();
+            totalNanos.reset();
+        }
+
+        public String getModId()
+        {
+            return modId;
+        }
+
+        public String getListener()
+        {
+            return listener;
+        }
+
+        public Class<?> getEventType()
+        {
+            return eventType;
+        }
+
+        public long getCount()
+        {
+            return count.sum();
+        }
+
+        public long getTotalNanos()
+        {
+            return totalNanos.sum();
+        }
+
+        public double getMeanNanos()
+        {
+            final long count = getCount();
+            return count == 0 ? 0 : (double)getTotalNanos() / count;
+        }
+    }
+
+    private static class Key
+    {
+        private final String modId;
+        private final String listener;
+        private final Class<?> eventType;
+
+        private Key(String modId, String listener, Class<?> eventType)
+        {
+            this.modId = modId;
+            this.listener = listener;
+            this.eventType = eventType;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key other = (Key)o;
+            return modId.equals(other.modId) && listener.equals(other.listener) && eventType == other.eventType;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * (31 * modId.hashCode() + listener.hashCode()) + eventType.hashCode();
+        }
+    }
+}
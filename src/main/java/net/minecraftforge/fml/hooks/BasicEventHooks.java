@@ -30,6 +30,9 @@ import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.fml.network.simple.MessageBatcher;
+import net.minecraftforge.server.timings.TickPhase;
+import net.minecraftforge.server.timings.TickPhaseTracker;
 
 public class BasicEventHooks
 {
@@ -92,12 +95,18 @@ public class BasicEventHooks
 
     public static void onPreWorldTick(World world)
     {
+        TickPhaseTracker.startWorldTick(world);
+        TickPhaseTracker.startPhase(world, TickPhase.TICK_EVENTS);
         MinecraftForge.EVENT_BUS.post(new TickEvent.WorldTickEvent(LogicalSide.SERVER, TickEvent.Phase.START, world));
+        TickPhaseTracker.endPhase(world);
     }
 
     public static void onPostWorldTick(World world)
     {
+        TickPhaseTracker.startPhase(world, TickPhase.TICK_EVENTS);
         MinecraftForge.EVENT_BUS.post(new TickEvent.WorldTickEvent(LogicalSide.SERVER, TickEvent.Phase.END, world));
+        TickPhaseTracker.endPhase(world);
+        TickPhaseTracker.endWorldTick(world);
     }
 
     public static void onPreClientTick()
@@ -108,6 +117,7 @@ public class BasicEventHooks
     public static void onPostClientTick()
     {
         MinecraftForge.EVENT_BUS.post(new TickEvent.ClientTickEvent(TickEvent.Phase.END));
+        MessageBatcher.flushAll();
     }
 
     public static void onPreServerTick()
@@ -118,5 +128,6 @@ public class BasicEventHooks
     public static void onPostServerTick()
     {
         MinecraftForge.EVENT_BUS.post(new TickEvent.ServerTickEvent(TickEvent.Phase.END));
+        MessageBatcher.flushAll();
     }
 }
@@ -25,6 +25,7 @@ import net.minecraftforge.eventbus.api.Event;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.eventbus.api.IEventListener;
 import net.minecraftforge.fml.AutomaticEventSubscriber;
+import net.minecraftforge.fml.EventListenerTimings;
 import net.minecraftforge.fml.ModContainer;
 import net.minecraftforge.fml.ModLoadingException;
 import net.minecraftforge.fml.ModLoadingStage;
@@ -117,7 +118,13 @@ public class FMLModContainer extends ModContainer
     protected <T extends Event & IModBusEvent> void acceptEvent(final T e) {
         try {
             LOGGER.debug(LOADING, "Firing event for modid {} : {}", this.getModId(), e);
-            this.eventBus.post(e);
+            if (EventListenerTimings.ENABLED) {
+                final long start = System.nanoTime();
+                this.eventBus.post(e);
+                EventListenerTimings.entry(this.getModId(), EventListenerTimings.MOD_BUS, e.getClass()).record(System.nanoTime() - start);
+            } else {
+                this.eventBus.post(e);
+            }
             LOGGER.debug(LOADING, "Fired event for modid {} : {}", this.getModId(), e);
         } catch (Throwable t) {
             LOGGER.error(LOADING,"Caught exception during event {} dispatch for modid {}", e, this.getModId(), t);
@@ -37,6 +37,12 @@ import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
 
 import com.google.common.collect.Maps;
+import io.netty.buffer.Unpooled;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.registries.RegistryManager;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.Nullable;
 
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
@@ -82,6 +88,7 @@ public class FMLHandshakeHandler {
     private static final Logger LOGGER = LogManager.getLogger();
 
     private static final FMLLoginWrapper loginWrapper = new FMLLoginWrapper();
+    private static final RegistrySnapshotCache registryCache = new RegistrySnapshotCache(FMLPaths.GAMEDIR.get().resolve("registrycache"));
 
     static {
     }
@@ -112,6 +119,11 @@ public class FMLHandshakeHandler {
     private Map<ResourceLocation, ForgeRegistry.Snapshot> registrySnapshots;
     private Set<ResourceLocation> registriesToReceive;
     private Map<ResourceLocation, String> registryHashes;
+    private Map<ResourceLocation, ForgeRegistry.Snapshot> cachedSnapshots;
+    // The registry packets depend on the client's cache, so they are only queued once the client replied to the mod list
+    private volatile boolean awaitingRegistryRequest;
+    @Nullable
+    private volatile List<NetworkRegistry.LoginPayload> registryPayloads;
 
     private FMLHandshakeHandler(NetworkManager networkManager, NetworkDirection side)
     {
@@ -125,6 +137,7 @@ public class FMLHandshakeHandler {
             LOGGER.debug(FMLHSMARKER, "Starting new vanilla network connection.");
         } else {
             this.messageList = NetworkRegistry.gatherLoginPayloads(this.direction, false);
+            this.awaitingRegistryRequest = this.direction == NetworkDirection.LOGIN_TO_CLIENT;
             LOGGER.debug(FMLHSMARKER, "Starting new modded network connection. Found {} messages to dispatch.", this.messageList.size());
         }
     }
@@ -179,7 +192,11 @@ public class FMLHandshakeHandler {
             c.get().getNetworkManager().closeChannel(new StringTextComponent("Connection closed - mismatched mod channel list"));
             return;
         }
-        FMLNetworkConstants.handshakeChannel.reply(new FMLHandshakeMessages.C2SModListReply(), c.get());
+        this.registryHashes = serverModList.getRegistryHashes();
+        this.cachedSnapshots = registryCache.load(this.registryHashes);
+        final Map<ResourceLocation, String> cachedHashes = Maps.newHashMap();
+        this.cachedSnapshots.keySet().forEach(name -> cachedHashes.put(name, this.registryHashes.get(name)));
+        FMLNetworkConstants.handshakeChannel.reply(new FMLHandshakeMessages.C2SModListReply(cachedHashes), c.get());
 
         LOGGER.debug(FMLHSMARKER, "Accepted server connection");
         // Set the modded marker on the channel so we know we got packets
@@ -210,12 +227,38 @@ public class FMLHandshakeHandler {
             return;
         }
         LOGGER.debug(FMLHSMARKER, "Accepted client connection mod list");
+        if (!this.awaitingRegistryRequest)
+            return; // Local connections share the server's registries
+
+        final List<NetworkRegistry.LoginPayload> payloads = new ArrayList<>();
+        int cached = 0;
+        for (Pair<String, FMLHandshakeMessages.S2CRegistry> packet : RegistryManager.generateRegistryPackets(clientModList.getRegistries())) {
+            final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+            FMLNetworkConstants.handshakeChannel.encodeMessage(packet.getRight(), buffer);
+            payloads.add(new NetworkRegistry.LoginPayload(buffer, FMLNetworkConstants.FML_HANDSHAKE_RESOURCE, packet.getLeft()));
+            if (packet.getRight().isCached()) cached++;
+        }
+        LOGGER.debug(REGISTRIES, "Sending {} registries, {} of them cached by the client", payloads.size(), cached);
+        this.registryPayloads = payloads;
+        this.awaitingRegistryRequest = false;
     }
 
     void handleRegistryMessage(final FMLHandshakeMessages.S2CRegistry registryPacket, final Supplier<NetworkEvent.Context> contextSupplier){
         LOGGER.debug(FMLHSMARKER,"Received registry packet for {}", registryPacket.getRegistryName());
+        ForgeRegistry.Snapshot snapshot = registryPacket.getSnapshot();
+        if (registryPacket.isCached()) {
+            snapshot = this.cachedSnapshots.get(registryPacket.getRegistryName());
+            if (snapshot == null || !registryPacket.getCachedHash().equals(this.registryHashes.get(registryPacket.getRegistryName()))) {
+                LOGGER.error(FMLHSMARKER, "Server referenced cached registry data for {} which the client does not have", registryPacket.getRegistryName());
+                contextSupplier.get().setPacketHandled(true);
+                this.manager.closeChannel(new StringTextComponent("Failed to synchronize registry data from server, closing connection"));
+                return;
+            }
+        } else if (registryPacket.getSnapshotData() != null && this.registryHashes.containsKey(registryPacket.getRegistryName())) {
+            registryCache.store(this.registryHashes.get(registryPacket.getRegistryName()), registryPacket.getSnapshotData());
+        }
         this.registriesToReceive.remove(registryPacket.getRegistryName());
-        this.registrySnapshots.put(registryPacket.getRegistryName(), registryPacket.getSnapshot());
+        this.registrySnapshots.put(registryPacket.getRegistryName(), snapshot);
 
         boolean continueHandshake = true;
         if (this.registriesToReceive.isEmpty()) {
@@ -284,6 +327,14 @@ public class FMLHandshakeHandler {
      */
     public boolean tickServer()
     {
+        // Read the flag first, the payloads are always published before it is cleared
+        final boolean awaitingRegistries = this.awaitingRegistryRequest;
+        final List<NetworkRegistry.LoginPayload> registryPayloads = this.registryPayloads;
+        if (registryPayloads != null) {
+            this.registryPayloads = null;
+            this.messageList.addAll(registryPayloads);
+        }
+
         if (packetPosition < messageList.size()) {
             NetworkRegistry.LoginPayload message = messageList.get(packetPosition);
 
@@ -294,7 +345,7 @@ public class FMLHandshakeHandler {
         }
 
         // we're done when sentMessages is empty
-        if (sentMessages.isEmpty() && packetPosition >= messageList.size()-1) {
+        if (sentMessages.isEmpty() && packetPosition >= messageList.size() && !awaitingRegistries) {
             // clear ourselves - we're done!
             this.manager.channel().attr(FMLNetworkConstants.FML_HANDSHAKE_HANDLER).set(null);
             LOGGER.debug(FMLHSMARKER, "Handshake complete!");
@@ -65,19 +65,22 @@ public class FMLHandshakeMessages
         private List<String> mods;
         private Map<ResourceLocation, String> channels;
         private List<ResourceLocation> registries;
+        private Map<ResourceLocation, String> registryHashes;
 
         public S2CModList()
         {
             this.mods = ModList.get().getMods().stream().map(ModInfo::getModId).collect(Collectors.toList());
             this.channels = NetworkRegistry.buildChannelVersions();
             this.registries = RegistryManager.getRegistryNamesForSyncToClient();
+            this.registryHashes = RegistryManager.getRegistryHashesForSyncToClient();
         }
 
-        private S2CModList(List<String> mods, Map<ResourceLocation, String> channels, List<ResourceLocation> registries)
+        private S2CModList(List<String> mods, Map<ResourceLocation, String> channels, List<ResourceLocation> registries, Map<ResourceLocation, String> registryHashes)
         {
             this.mods = mods;
             this.channels = channels;
             this.registries = registries;
+            this.registryHashes = registryHashes;
         }
 
         public static S2CModList decode(PacketBuffer input)
@@ -97,7 +100,12 @@ public class FMLHandshakeMessages
             for (int x = 0; x < len; x++)
                 registries.add(input.readResourceLocation());
 
-            return new S2CModList(mods, channels, registries);
+            Map<ResourceLocation, String> registryHashes = new HashMap<>();
+            len = input.readVarInt();
+            for (int x = 0; x < len; x++)
+                registryHashes.put(input.readResourceLocation(), input.readString(0x100));
+
+            return new S2CModList(mods, channels, registries, registryHashes);
         }
 
         public void encode(PacketBuffer output)
@@ -113,6 +121,12 @@ public class FMLHandshakeMessages
 
             output.writeVarInt(registries.size());
             registries.forEach(output::writeResourceLocation);
+
+            output.writeVarInt(registryHashes.size());
+            registryHashes.forEach((k, v) -> {
+                output.writeResourceLocation(k);
+                output.writeString(v, 0x100);
+            });
         }
 
         public List<String> getModList() {
@@ -123,6 +137,13 @@ public class FMLHandshakeMessages
             return this.registries;
         }
 
+        /**
+         * @return the content hash of each registry snapshot the server will send
+         */
+        public Map<ResourceLocation, String> getRegistryHashes() {
+            return this.registryHashes;
+        }
+
         public Map<ResourceLocation, String> getChannels() {
             return this.channels;
         }
@@ -135,10 +156,18 @@ public class FMLHandshakeMessages
         private Map<ResourceLocation, String> registries;
 
         public C2SModListReply()
+        {
+            this(Maps.newHashMap());
+        }
+
+        /**
+         * @param registries the content hashes of the registry snapshots the client already holds in its cache
+         */
+        public C2SModListReply(Map<ResourceLocation, String> registries)
         {
             this.mods = ModList.get().getMods().stream().map(ModInfo::getModId).collect(Collectors.toList());
             this.channels = NetworkRegistry.buildChannelVersions();
-            this.registries = Maps.newHashMap(); //TODO: Fill with known hashes, which requires keeping a file cache
+            this.registries = registries;
         }
 
         private C2SModListReply(List<String> mods, Map<ResourceLocation, String> channels, Map<ResourceLocation, String> registries)
@@ -213,25 +242,48 @@ public class FMLHandshakeMessages
         private ResourceLocation registryName;
         @Nullable
         private ForgeRegistry.Snapshot snapshot;
+        @Nullable
+        private String cachedHash;
+        // The snapshot as received, kept on the client for its cache
+        @Nullable
+        private byte[] snapshotData;
 
         public S2CRegistry(final ResourceLocation name, @Nullable ForgeRegistry.Snapshot snapshot) {
             this.registryName = name;
             this.snapshot = snapshot;
         }
 
+        /**
+         * A registry packet telling the client to use the snapshot with the given hash from its cache.
+         */
+        public static S2CRegistry cached(final ResourceLocation name, final String hash) {
+            S2CRegistry ret = new S2CRegistry(name, null);
+            ret.cachedHash = hash;
+            return ret;
+        }
+
         void encode(final PacketBuffer buffer) {
             buffer.writeResourceLocation(registryName);
             buffer.writeBoolean(hasSnapshot());
-            if (hasSnapshot())
+            if (hasSnapshot()) {
                 buffer.writeBytes(snapshot.getPacketData());
+            } else {
+                buffer.writeBoolean(isCached());
+                if (isCached())
+                    buffer.writeString(cachedHash, 0x100);
+            }
         }
 
         public static S2CRegistry decode(final PacketBuffer buffer) {
             ResourceLocation name = buffer.readResourceLocation();
-            ForgeRegistry.Snapshot snapshot = null;
-            if (buffer.readBoolean())
-                snapshot = ForgeRegistry.Snapshot.read(buffer);
-            return new S2CRegistry(name, snapshot);
+            if (buffer.readBoolean()) {
+                int start = buffer.readerIndex();
+                S2CRegistry ret = new S2CRegistry(name, ForgeRegistry.Snapshot.read(buffer));
+                ret.snapshotData = new byte[buffer.readerIndex() - start];
+                buffer.getBytes(start, ret.snapshotData);
+                return ret;
+            }
+            return buffer.readBoolean() ? cached(name, buffer.readString(0x100)) : new S2CRegistry(name, null);
         }
 
         public ResourceLocation getRegistryName() {
@@ -246,6 +298,23 @@ public class FMLHandshakeMessages
         public ForgeRegistry.Snapshot getSnapshot() {
             return snapshot;
         }
+
+        /**
+         * @return true if the client should take the snapshot from its cache
+         */
+        public boolean isCached() {
+            return cachedHash != null;
+        }
+
+        @Nullable
+        public String getCachedHash() {
+            return cachedHash;
+        }
+
+        @Nullable
+        byte[] getSnapshotData() {
+            return snapshotData;
+        }
     }
 
 
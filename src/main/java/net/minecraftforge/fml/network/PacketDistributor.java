@@ -24,6 +24,7 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.IPacket;
+import net.minecraft.network.play.server.SCustomPayloadPlayPacket;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.RegistryKey;
 import net.minecraft.world.World;
@@ -32,10 +33,14 @@ import net.minecraft.world.server.ServerChunkProvider;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.LogicalSidedProvider;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Means to distribute packets in various ways
@@ -50,31 +55,31 @@ public class PacketDistributor<T> {
      * <br/>
      * {@link #with(Supplier)} Player
      */
-    public static final PacketDistributor<ServerPlayerEntity> PLAYER = new PacketDistributor<>(PacketDistributor::playerConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<ServerPlayerEntity> PLAYER = new PacketDistributor<>(PacketDistributor::playerConsumer, PacketDistributor::playerManagers, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone in the dimension specified in the Supplier
      * <br/>
      * {@link #with(Supplier)} DimensionType
      */
-    public static final PacketDistributor<RegistryKey<World>> DIMENSION = new PacketDistributor<>(PacketDistributor::playerListDimConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<RegistryKey<World>> DIMENSION = new PacketDistributor<>(PacketDistributor::playerListDimConsumer, PacketDistributor::playerListDimManagers, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone near the {@link TargetPoint} specified in the Supplier
      * <br/>
      * {@link #with(Supplier)} TargetPoint
      */
-    public static final PacketDistributor<TargetPoint> NEAR = new PacketDistributor<>(PacketDistributor::playerListPointConsumer, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<TargetPoint> NEAR = new PacketDistributor<>(PacketDistributor::playerListPointConsumer, PacketDistributor::playerListPointManagers, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone
      * <br/>
      * {@link #noArg()}
      */
-    public static final PacketDistributor<Void> ALL = new PacketDistributor<>(PacketDistributor::playerListAll, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<Void> ALL = new PacketDistributor<>(PacketDistributor::playerListAll, PacketDistributor::playerListAllManagers, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to the server (CLIENT to SERVER)
      * <br/>
      * {@link #noArg()}
      */
-    public static final PacketDistributor<Void> SERVER = new PacketDistributor<>(PacketDistributor::clientToServer, NetworkDirection.PLAY_TO_SERVER);
+    public static final PacketDistributor<Void> SERVER = new PacketDistributor<>(PacketDistributor::clientToServer, PacketDistributor::clientToServerManagers, NetworkDirection.PLAY_TO_SERVER);
     /**
      * Send to all tracking the Entity in the Supplier
      * <br/>
@@ -92,13 +97,13 @@ public class PacketDistributor<T> {
      * <br/>
      * {@link #with(Supplier)} Chunk
      */
-    public static final PacketDistributor<Chunk> TRACKING_CHUNK = new PacketDistributor<>(PacketDistributor::trackingChunk, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<Chunk> TRACKING_CHUNK = new PacketDistributor<>(PacketDistributor::trackingChunk, PacketDistributor::trackingChunkManagers, NetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to the supplied list of NetworkManager instances in the Supplier
      * <br/>
      * {@link #with(Supplier)} List of NetworkManager
      */
-    public static final PacketDistributor<List<NetworkManager>> NMLIST = new PacketDistributor<>(PacketDistributor::networkManagerList, NetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<List<NetworkManager>> NMLIST = new PacketDistributor<>(PacketDistributor::networkManagerList, (d, s) -> s, NetworkDirection.PLAY_TO_CLIENT);
 
     public static final class TargetPoint {
 
@@ -169,16 +174,39 @@ public class PacketDistributor<T> {
      */
     public static class PacketTarget {
         private final Consumer<IPacket<?>> packetConsumer;
+        @Nullable
+        private final Supplier<List<NetworkManager>> managers;
         private final PacketDistributor<?> distributor;
-        PacketTarget(final Consumer<IPacket<?>> packetConsumer, final PacketDistributor<?> distributor) {
+        PacketTarget(final Consumer<IPacket<?>> packetConsumer, @Nullable final Supplier<List<NetworkManager>> managers, final PacketDistributor<?> distributor) {
             this.packetConsumer = packetConsumer;
+            this.managers = managers;
             this.distributor = distributor;
         }
 
+        /**
+         * Send the packet to this target. Custom payloads sent to several clients are serialized only once.
+         */
         public void send(IPacket<?> packet) {
+            if (managers != null && distributor.direction == NetworkDirection.PLAY_TO_CLIENT && packet instanceof SCustomPayloadPlayPacket) {
+                final List<NetworkManager> targets = managers.get();
+                if (targets.size() >= 2) {
+                    PacketFanout.send((SCustomPayloadPlayPacket)packet, targets);
+                    return;
+                }
+            }
             packetConsumer.accept(packet);
         }
 
+        /**
+         * Resolve the connections a packet sent to this target would currently reach.
+         *
+         * @return the target connections, or null if the distributor cannot enumerate them
+         */
+        @Nullable
+        public List<NetworkManager> getNetworkManagers() {
+            return managers == null ? null : managers.get();
+        }
+
         public NetworkDirection getDirection() {
             return distributor.direction;
         }
@@ -186,10 +214,21 @@ public class PacketDistributor<T> {
     }
 
     private final BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<IPacket<?>>> functor;
+    @Nullable
+    private final BiFunction<PacketDistributor<T>, Supplier<T>, Supplier<List<NetworkManager>>> managersFunctor;
     private final NetworkDirection direction;
 
     public PacketDistributor(BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<IPacket<?>>> functor, NetworkDirection direction) {
+        this(functor, null, direction);
+    }
+
+    /**
+     * @param managersFunctor resolves the connections a packet would be sent to, allowing a message to be encoded
+     *                        once for all of them or batched per connection
+     */
+    public PacketDistributor(BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<IPacket<?>>> functor, @Nullable BiFunction<PacketDistributor<T>, Supplier<T>, Supplier<List<NetworkManager>>> managersFunctor, NetworkDirection direction) {
         this.functor = functor;
+        this.managersFunctor = managersFunctor;
         this.direction = direction;
     }
 
@@ -199,7 +238,7 @@ public class PacketDistributor<T> {
      * @return A curried instance
      */
     public PacketTarget with(Supplier<T> input) {
-        return new PacketTarget(functor.apply(this, input), this);
+        return new PacketTarget(functor.apply(this, input), managersFunctor == null ? null : managersFunctor.apply(this, input), this);
     }
 
     /**
@@ -210,7 +249,8 @@ public class PacketDistributor<T> {
      * @return A curried instance
      */
     public PacketTarget noArg() {
-        return new PacketTarget(functor.apply(this, ()->null), this);
+        final Supplier<T> input = ()->null;
+        return new PacketTarget(functor.apply(this, input), managersFunctor == null ? null : managersFunctor.apply(this, input), this);
     }
 
     private Consumer<IPacket<?>> playerConsumer(final Supplier<ServerPlayerEntity> entityPlayerMPSupplier) {
@@ -260,6 +300,49 @@ public class PacketDistributor<T> {
         return p -> nmListSupplier.get().forEach(nm->nm.sendPacket(p));
     }
 
+    private Supplier<List<NetworkManager>> playerManagers(final Supplier<ServerPlayerEntity> entityPlayerMPSupplier) {
+        return () -> Collections.singletonList(entityPlayerMPSupplier.get().connection.netManager);
+    }
+
+    private Supplier<List<NetworkManager>> playerListDimManagers(final Supplier<RegistryKey<World>> dimensionTypeSupplier) {
+        return () -> {
+            final RegistryKey<World> dim = dimensionTypeSupplier.get();
+            return getServer().getPlayerList().getPlayers().stream().filter(p -> p.world.getDimensionKey() == dim).map(p -> p.connection.netManager).collect(Collectors.toList());
+        };
+    }
+
+    private Supplier<List<NetworkManager>> playerListAllManagers(final Supplier<Void> voidSupplier) {
+        return () -> getServer().getPlayerList().getPlayers().stream().map(p -> p.connection.netManager).collect(Collectors.toList());
+    }
+
+    private Supplier<List<NetworkManager>> clientToServerManagers(final Supplier<Void> voidSupplier) {
+        return () -> Collections.singletonList(Minecraft.getInstance().getConnection().getNetworkManager());
+    }
+
+    private Supplier<List<NetworkManager>> playerListPointManagers(final Supplier<TargetPoint> targetPointSupplier) {
+        return () -> {
+            final TargetPoint tp = targetPointSupplier.get();
+            final List<NetworkManager> ret = new ArrayList<>();
+            // Mirrors PlayerList.sendToAllNearExcept
+            for (ServerPlayerEntity player : getServer().getPlayerList().getPlayers()) {
+                if (player == tp.excluded || player.world.getDimensionKey() != tp.dim) continue;
+                final double dx = tp.x - player.getPosX();
+                final double dy = tp.y - player.getPosY();
+                final double dz = tp.z - player.getPosZ();
+                if (dx * dx + dy * dy + dz * dz < tp.r2 * tp.r2)
+                    ret.add(player.connection.netManager);
+            }
+            return ret;
+        };
+    }
+
+    private Supplier<List<NetworkManager>> trackingChunkManagers(final Supplier<Chunk> chunkPosSupplier) {
+        return () -> {
+            final Chunk chunk = chunkPosSupplier.get();
+            return ((ServerChunkProvider)chunk.getWorld().getChunkProvider()).chunkManager.getTrackingPlayers(chunk.getPos(), false).map(e -> e.connection.netManager).collect(Collectors.toList());
+        };
+    }
+
     private MinecraftServer getServer() {
         return LogicalSidedProvider.INSTANCE.get(LogicalSide.SERVER);
     }
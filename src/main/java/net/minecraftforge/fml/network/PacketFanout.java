@@ -0,0 +1,146 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelPipeline;
+import net.minecraft.network.IPacket;
+import net.minecraft.network.NetworkManager;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.network.PacketDirection;
+import net.minecraft.network.ProtocolType;
+import net.minecraft.network.play.ServerPlayNetHandler;
+import net.minecraft.network.play.server.SCustomPayloadPlayPacket;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Sends a custom payload packet to many clients while serializing it only once.
+ *
+ * The serialized packet is written as a shared buffer to each connection's pipeline below the packet encoder,
+ * so it is still framed, compressed and encrypted per connection. Connections which do not serialize packets,
+ * such as the integrated server's local connection, or which are not in the play state, get the packet itself
+ * through their play handler.
+ */
+class PacketFanout
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static void send(SCustomPayloadPlayPacket packet, List<NetworkManager> managers)
+    {
+        ByteBuf serialized = null;
+        boolean serializable = true;
+        try
+        {
+            for (NetworkManager manager : managers)
+            {
+                if (serializable && acceptsSerialized(manager))
+                {
+                    if (serialized == null)
+                    {
+                        serialized = serialize(packet);
+                        serializable = serialized != null;
+                    }
+                    if (serialized != null && manager.sendSerializedPacket(serialized.retainedDuplicate()))
+                        continue;
+                }
+                sendPacket(manager, packet);
+            }
+        }
+        finally
+        {
+            if (serialized != null)
+                serialized.release();
+        }
+    }
+
+    /**
+     * Send the packet through the connection's play handler like the distributors do, falling back to the connection itself.
+     */
+    private static void sendPacket(NetworkManager manager, IPacket<?> packet)
+    {
+        if (manager.getNetHandler() instanceof ServerPlayNetHandler)
+            ((ServerPlayNetHandler)manager.getNetHandler()).sendPacket(packet);
+        else
+            manager.sendPacket(packet);
+    }
+
+    private static boolean acceptsSerialized(NetworkManager manager)
+    {
+        return !manager.isLocalChannel() && manager.isChannelOpen() &&
+               manager.channel().attr(NetworkManager.PROTOCOL_ATTRIBUTE_KEY).get() == ProtocolType.PLAY &&
+               !NetworkHooks.isVanillaConnection(manager) &&
+               onlyVanillaHandlersAboveEncoder(manager.channel().pipeline());
+    }
+
+    /**
+     * The serialized packet skips every outbound handler between the packet handler and the encoder, such as
+     * Forge's vanilla connection filter or encoders added by mods, so those connections must get the packet itself.
+     */
+    private static boolean onlyVanillaHandlersAboveEncoder(ChannelPipeline pipeline)
+    {
+        boolean aboveEncoder = false;
+        for (String name : pipeline.names())
+        {
+            if (aboveEncoder)
+            {
+                // names() also lists netty's tail context, which get() does not resolve to a handler
+                if (!"packet_handler".equals(name) && pipeline.get(name) != null)
+                    return false;
+            }
+            else if ("encoder".equals(name))
+            {
+                aboveEncoder = true;
+            }
+        }
+        return aboveEncoder;
+    }
+
+    /**
+     * Serialize the packet the same way NettyPacketEncoder does, packet id first.
+     */
+    @Nullable
+    private static ByteBuf serialize(IPacket<?> packet)
+    {
+        final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        try
+        {
+            final Integer id = ProtocolType.PLAY.getPacketId(PacketDirection.CLIENTBOUND, packet);
+            if (id == null)
+            {
+                buffer.release();
+                return null;
+            }
+            buffer.writeVarInt(id);
+            packet.writePacketData(buffer);
+            return buffer;
+        }
+        catch (Exception e)
+        {
+            LOGGER.debug(FMLNetworkConstants.NETWORK, "Unable to serialize {} once for all targets, sending it per connection", packet.getClass().getName(), e);
+            buffer.release();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.loading.FileUtils;
+import net.minecraftforge.registries.ForgeRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.minecraftforge.registries.ForgeRegistry.REGISTRIES;
+
+/**
+ * Client side cache of the registry snapshots received from servers, so that logging into a server again
+ * only transfers the registries that changed since.
+ *
+ * Entries are stored by the content hash of their packet data, which is checked again when they are read,
+ * so entries are shared between servers with identical registries. The least recently used entries are
+ * removed once the cache grows past {@link #MAX_ENTRIES}.
+ */
+class RegistrySnapshotCache
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final int MAX_ENTRIES = 256;
+
+    private final Path cacheDir;
+
+    RegistrySnapshotCache(final Path cacheDir)
+    {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Read the cached snapshots matching the given hashes. Missing and corrupt entries are left out.
+     *
+     * @param hashes the content hashes of the wanted snapshots, by registry name
+     * @return the cached snapshots, by registry name
+     */
+    Map<ResourceLocation, ForgeRegistry.Snapshot> load(final Map<ResourceLocation, String> hashes)
+    {
+        final Map<ResourceLocation, ForgeRegistry.Snapshot> ret = new HashMap<>();
+        hashes.forEach((name, hash) -> {
+            if (!HASH.matcher(hash).matches()) return;
+            final Path entry = cacheDir.resolve(hash + ".bin");
+            try
+            {
+                final PacketBuffer data = new PacketBuffer(Unpooled.wrappedBuffer(Files.readAllBytes(entry)));
+                if (!hash.equals(ForgeRegistry.Snapshot.hash(data)))
+                {
+                    LOGGER.debug(REGISTRIES, "Discarding corrupt registry cache entry {} for {}", entry, name);
+                    Files.deleteIfExists(entry);
+                    return;
+                }
+                ret.put(name, ForgeRegistry.Snapshot.read(data));
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+            catch (NoSuchFileException e)
+            {
+                // Not cached
+            }
+            catch (IOException | RuntimeException e)
+            {
+                LOGGER.debug(REGISTRIES, "Unable to read registry cache entry {} for {}", entry, name, e);
+            }
+        });
+        LOGGER.debug(REGISTRIES, "Found {} of {} registries in the cache", ret.size(), hashes.size());
+        return ret;
+    }
+
+    /**
+     * Store the packet data of a received snapshot. Failures are logged and otherwise ignored,
+     * the snapshot will simply be sent again next time.
+     */
+    void store(final String hash, final byte[] data)
+    {
+        if (!HASH.matcher(hash).matches() || !hash.equals(ForgeRegistry.Snapshot.hash(Unpooled.wrappedBuffer(data))))
+            return;
+        final Path entry = cacheDir.resolve(hash + ".bin");
+        Path tmp = null;
+        try
+        {
+            FileUtils.getOrCreateDirectory(cacheDir, "registry cache");
+            tmp = Files.createTempFile(cacheDir, hash, ".tmp");
+            Files.write(tmp, data);
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            prune();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOGGER.debug(REGISTRIES, "Unable to cache registry snapshot {}", hash, e);
+            if (tmp != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(tmp);
+                }
+                catch (IOException ignored) {}
+            }
+        }
+    }
+
+    private void prune() throws IOException
+    {
+        final List<Path> entries;
+        try (Stream<Path> files = Files.list(cacheDir))
+        {
+            entries = files.filter(p -> p.getFileName().toString().endsWith(".bin")).collect(Collectors.toCollection(ArrayList::new));
+        }
+        if (entries.size() <= MAX_ENTRIES)
+            return;
+        final Map<Path, FileTime> times = new HashMap<>();
+        for (Path p : entries)
+            times.put(p, Files.getLastModifiedTime(p));
+        entries.sort(Comparator.comparing(times::get));
+        for (Path p : entries.subList(0, entries.size() - MAX_ENTRIES))
+            Files.deleteIfExists(p);
+    }
+}
@@ -19,8 +19,7 @@
 
 package net.minecraftforge.fml.network.simple;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
-import it.unimi.dsi.fastutil.shorts.Short2ObjectArrayMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.network.PacketBuffer;
 import net.minecraftforge.fml.network.NetworkDirection;
 import net.minecraftforge.fml.network.NetworkEvent;
@@ -31,6 +30,7 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
 
+import javax.annotation.Nullable;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiConsumer;
@@ -41,9 +41,11 @@ public class IndexedMessageCodec
 {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final Marker SIMPLENET = MarkerManager.getMarker("SIMPLENET");
-    private final Short2ObjectArrayMap<MessageHandler<?>> indicies = new Short2ObjectArrayMap<>();
-    private final Object2ObjectArrayMap<Class<?>, MessageHandler<?>> types = new Object2ObjectArrayMap<>();
+    // Indexed by discriminator
+    private final MessageHandler<?>[] indicies = new MessageHandler<?>[256];
+    private final Reference2ObjectOpenHashMap<Class<?>, MessageHandler<?>> types = new Reference2ObjectOpenHashMap<>();
     private final NetworkInstance networkInstance;
+    private boolean batching;
 
     public IndexedMessageCodec() {
         this(null);
@@ -52,6 +54,13 @@ public class IndexedMessageCodec
         this.networkInstance = instance;
     }
 
+    void enableBatching() {
+        if (indicies[MessageBatcher.BATCH_DISCRIMINATOR] != null) {
+            throw new IllegalStateException("Discriminator " + MessageBatcher.BATCH_DISCRIMINATOR + " is reserved for batches");
+        }
+        this.batching = true;
+    }
+
     @SuppressWarnings("unchecked")
     public <MSG> MessageHandler<MSG> findMessageType(final MSG msgToReply) {
         return (MessageHandler<MSG>) types.get(msgToReply.getClass());
@@ -59,50 +68,52 @@ public class IndexedMessageCodec
 
     @SuppressWarnings("unchecked")
     <MSG> MessageHandler<MSG> findIndex(final short i) {
-        return (MessageHandler<MSG>) indicies.get(i);
+        return (MessageHandler<MSG>) indicies[i & 0xff];
     }
 
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
     class MessageHandler<MSG>
     {
-        private final Optional<BiConsumer<MSG, PacketBuffer>> encoder;
-        private final Optional<Function<PacketBuffer, MSG>> decoder;
+        @Nullable
+        private final BiConsumer<MSG, PacketBuffer> encoder;
+        @Nullable
+        private final Function<PacketBuffer, MSG> decoder;
         private final int index;
         private final BiConsumer<MSG,Supplier<NetworkEvent.Context>> messageConsumer;
         private final Class<MSG> messageType;
         private final Optional<NetworkDirection> networkDirection;
-        private Optional<BiConsumer<MSG, Integer>> loginIndexSetter;
-        private Optional<Function<MSG, Integer>> loginIndexGetter;
+        @Nullable
+        private BiConsumer<MSG, Integer> loginIndexSetter;
+        @Nullable
+        private Function<MSG, Integer> loginIndexGetter;
 
         public MessageHandler(int index, Class<MSG> messageType, BiConsumer<MSG, PacketBuffer> encoder, Function<PacketBuffer, MSG> decoder, BiConsumer<MSG, Supplier<NetworkEvent.Context>> messageConsumer, final Optional<NetworkDirection> networkDirection)
         {
             this.index = index;
             this.messageType = messageType;
-            this.encoder = Optional.ofNullable(encoder);
-            this.decoder = Optional.ofNullable(decoder);
+            this.encoder = encoder;
+            this.decoder = decoder;
             this.messageConsumer = messageConsumer;
             this.networkDirection = networkDirection;
-            this.loginIndexGetter = Optional.empty();
-            this.loginIndexSetter = Optional.empty();
-            indicies.put((short)(index & 0xff), this);
+            indicies[index & 0xff] = this;
             types.put(messageType, this);
         }
 
         void setLoginIndexSetter(BiConsumer<MSG, Integer> loginIndexSetter)
         {
-            this.loginIndexSetter = Optional.of(loginIndexSetter);
+            this.loginIndexSetter = loginIndexSetter;
         }
 
         Optional<BiConsumer<MSG, Integer>> getLoginIndexSetter() {
-            return this.loginIndexSetter;
+            return Optional.ofNullable(this.loginIndexSetter);
         }
 
         void setLoginIndexGetter(Function<MSG, Integer> loginIndexGetter) {
-            this.loginIndexGetter = Optional.of(loginIndexGetter);
+            this.loginIndexGetter = loginIndexGetter;
         }
 
         public Optional<Function<MSG, Integer>> getLoginIndexGetter() {
-            return this.loginIndexGetter;
+            return Optional.ofNullable(this.loginIndexGetter);
         }
 
         MSG newInstance() {
@@ -117,23 +128,27 @@ public class IndexedMessageCodec
 
     private static <M> void tryDecode(PacketBuffer payload, Supplier<NetworkEvent.Context> context, int payloadIndex, MessageHandler<M> codec)
     {
-        codec.decoder.map(d->d.apply(payload)).
-                map(p->{
-                    // Only run the loginIndex function for payloadIndexed packets (login)
-                    if (payloadIndex != Integer.MIN_VALUE)
-                    {
-                        codec.getLoginIndexSetter().ifPresent(f-> f.accept(p, payloadIndex));
-                    }
-                    return p;
-                }).ifPresent(m->codec.messageConsumer.accept(m, context));
+        if (codec.decoder == null) return;
+        final M message = codec.decoder.apply(payload);
+        if (message == null) return;
+        // Only run the loginIndex function for payloadIndexed packets (login)
+        if (payloadIndex != Integer.MIN_VALUE && codec.loginIndexSetter != null)
+        {
+            codec.loginIndexSetter.accept(message, payloadIndex);
+        }
+        codec.messageConsumer.accept(message, context);
     }
 
     private static <M> int tryEncode(PacketBuffer target, M message, MessageHandler<M> codec) {
-        codec.encoder.ifPresent(encoder->{
+        if (codec.encoder != null) {
             target.writeByte(codec.index & 0xff);
-            encoder.accept(message, target);
-        });
-        return codec.loginIndexGetter.orElse(m -> Integer.MIN_VALUE).apply(message);
+            codec.encoder.accept(message, target);
+        }
+        return codec.loginIndexGetter == null ? Integer.MIN_VALUE : codec.loginIndexGetter.apply(message);
+    }
+
+    private String channelName() {
+        return networkInstance == null ? "MISSING CHANNEL" : Objects.toString(networkInstance.getChannelName());
     }
 
     public <MSG> int build(MSG message, PacketBuffer target)
@@ -141,7 +156,7 @@ public class IndexedMessageCodec
         @SuppressWarnings("unchecked")
         MessageHandler<MSG> messageHandler = (MessageHandler<MSG>)types.get(message.getClass());
         if (messageHandler == null) {
-            LOGGER.error(SIMPLENET, "Received invalid message {} on channel {}", message.getClass().getName(), Optional.ofNullable(networkInstance).map(NetworkInstance::getChannelName).map(Objects::toString).orElse("MISSING CHANNEL"));
+            LOGGER.error(SIMPLENET, "Received invalid message {} on channel {}", message.getClass().getName(), channelName());
             throw new IllegalArgumentException("Invalid message "+message.getClass().getName());
         }
         return tryEncode(target, message, messageHandler);
@@ -149,20 +164,31 @@ public class IndexedMessageCodec
 
     void consume(PacketBuffer payload, int payloadIndex, Supplier<NetworkEvent.Context> context) {
         if (payload == null) {
-            LOGGER.error(SIMPLENET, "Received empty payload on channel {}", Optional.ofNullable(networkInstance).map(NetworkInstance::getChannelName).map(Objects::toString).orElse("MISSING CHANNEL"));
+            LOGGER.error(SIMPLENET, "Received empty payload on channel {}", channelName());
             return;
         }
         short discriminator = payload.readUnsignedByte();
-        final MessageHandler<?> messageHandler = indicies.get(discriminator);
+        if (batching && discriminator == MessageBatcher.BATCH_DISCRIMINATOR) {
+            while (payload.isReadable()) {
+                final int length = payload.readVarInt();
+                consume(new PacketBuffer(payload.readSlice(length)), payloadIndex, context);
+            }
+            return;
+        }
+        final MessageHandler<?> messageHandler = indicies[discriminator];
         if (messageHandler == null) {
-            LOGGER.error(SIMPLENET, "Received invalid discriminator byte {} on channel {}", discriminator, Optional.ofNullable(networkInstance).map(NetworkInstance::getChannelName).map(Objects::toString).orElse("MISSING CHANNEL"));
+            LOGGER.error(SIMPLENET, "Received invalid discriminator byte {} on channel {}", discriminator, channelName());
             return;
         }
-        NetworkHooks.validatePacketDirection(context.get().getDirection(), messageHandler.networkDirection, context.get().getNetworkManager());
+        final NetworkEvent.Context ctx = context.get();
+        NetworkHooks.validatePacketDirection(ctx.getDirection(), messageHandler.networkDirection, ctx.getNetworkManager());
         tryDecode(payload, context, payloadIndex, messageHandler);
     }
 
     <MSG> MessageHandler<MSG> addCodecIndex(int index, Class<MSG> messageType, BiConsumer<MSG, PacketBuffer> encoder, Function<PacketBuffer, MSG> decoder, BiConsumer<MSG, Supplier<NetworkEvent.Context>> messageConsumer, final Optional<NetworkDirection> networkDirection) {
+        if (batching && (index & 0xff) == MessageBatcher.BATCH_DISCRIMINATOR) {
+            throw new IllegalArgumentException("Discriminator " + MessageBatcher.BATCH_DISCRIMINATOR + " is reserved for batches");
+        }
         return new MessageHandler<>(index, messageType, encoder, decoder, messageConsumer, networkDirection);
     }
 }
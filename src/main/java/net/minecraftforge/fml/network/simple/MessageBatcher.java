@@ -0,0 +1,205 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.network.simple;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.NetworkManager;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.network.NetworkDirection;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Coalesces the messages a {@link SimpleChannel} sends to each connection during a tick into a single payload packet,
+ * flushed at the end of the client and server tick.
+ *
+ * A batch payload starts with {@link #BATCH_DISCRIMINATOR} followed by each message, prefixed with its length as a
+ * VarInt, and is split up again by {@link IndexedMessageCodec#consume}.
+ *
+ * @see SimpleChannel#enableBatching()
+ */
+public class MessageBatcher
+{
+    static final short BATCH_DISCRIMINATOR = 0xff;
+    // Below the 32767 byte limit on client to server custom payloads
+    private static final int MAX_BATCH_BYTES = 32000;
+    private static final List<MessageBatcher> BATCHERS = new CopyOnWriteArrayList<>();
+
+    private final SimpleChannel channel;
+    private final ResourceLocation channelName;
+    private final Map<NetworkManager, Batch> pending = new IdentityHashMap<>();
+    private final PacketBuffer scratch = new PacketBuffer(Unpooled.buffer());
+    // Packet id and channel name, paid once per packet
+    private final int packetOverhead;
+    private long batchesSent;
+    private long messagesBatched;
+    private long bytesSaved;
+
+    MessageBatcher(SimpleChannel channel, ResourceLocation channelName)
+    {
+        this.channel = channel;
+        this.channelName = channelName;
+        final int nameLength = channelName.toString().getBytes(StandardCharsets.UTF_8).length;
+        this.packetOverhead = 1 + PacketBuffer.getVarIntSize(nameLength) + nameLength;
+        BATCHERS.add(this);
+    }
+
+    /**
+     * Send all pending batches of every batching channel.
+     */
+    public static void flushAll()
+    {
+        for (MessageBatcher batcher : BATCHERS)
+            batcher.flush();
+    }
+
+    <MSG> void add(NetworkManager manager, NetworkDirection direction, MSG message)
+    {
+        add(Collections.singletonList(manager), direction, message);
+    }
+
+    /**
+     * Encode the message once and append it to the batch of each connection.
+     */
+    synchronized <MSG> void add(List<NetworkManager> managers, NetworkDirection direction, MSG message)
+    {
+        scratch.clear();
+        channel.encodeMessage(message, scratch);
+        final int length = scratch.readableBytes();
+        final int framed = PacketBuffer.getVarIntSize(length) + length;
+        final boolean alone = 1 + framed > MAX_BATCH_BYTES;
+        for (NetworkManager manager : managers)
+        {
+            Batch batch = pending.get(manager);
+            if (batch != null && (alone || batch.buffer.writerIndex() + framed > MAX_BATCH_BYTES))
+            {
+                pending.remove(manager);
+                send(manager, batch);
+                batch = null;
+            }
+            if (alone)
+            {
+                // Too large to ever share a packet, send it as is
+                final PacketBuffer buffer = new PacketBuffer(Unpooled.copiedBuffer(scratch));
+                manager.sendPacket(direction.buildPacket(Pair.of(buffer, Integer.MIN_VALUE), channelName).getThis());
+                continue;
+            }
+            if (batch == null)
+            {
+                batch = new Batch(direction);
+                pending.put(manager, batch);
+            }
+            batch.add(scratch, length);
+        }
+    }
+
+    synchronized void flush()
+    {
+        if (pending.isEmpty()) return;
+        pending.forEach(this::send);
+        pending.clear();
+    }
+
+    private void send(NetworkManager manager, Batch batch)
+    {
+        if (!manager.isChannelOpen()) return;
+        final PacketBuffer payload;
+        if (batch.messages == 1)
+        {
+            // A lone message gains nothing from the framing
+            payload = new PacketBuffer(batch.buffer.slice(batch.firstOffset, batch.firstLength));
+        }
+        else
+        {
+            payload = batch.buffer;
+            batchesSent++;
+            messagesBatched += batch.messages;
+            final int batchBytes = packetOverhead + payload.readableBytes();
+            bytesSaved += batch.separateBytes - (PacketBuffer.getVarIntSize(batchBytes) + batchBytes);
+        }
+        manager.sendPacket(batch.direction.buildPacket(Pair.of(payload, Integer.MIN_VALUE), channelName).getThis());
+    }
+
+    /**
+     * @return the number of packets sent carrying more than one message
+     */
+    public synchronized long getBatchesSent()
+    {
+        return batchesSent;
+    }
+
+    /**
+     * @return the number of messages sent as part of a batch
+     */
+    public synchronized long getMessagesBatched()
+    {
+        return messagesBatched;
+    }
+
+    public synchronized double getMeanMessagesPerBatch()
+    {
+        return batchesSent == 0 ? 0 : (double)messagesBatched / batchesSent;
+    }
+
+    /**
+     * @return the estimated number of bytes saved by batching, before compression
+     */
+    public synchronized long getBytesSaved()
+    {
+        return bytesSaved;
+    }
+
+    private class Batch
+    {
+        private final NetworkDirection direction;
+        private final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        private int messages;
+        private int firstOffset;
+        private int firstLength;
+        // The size of the messages had they been sent as separate packets, including the packet length prefix
+        private long separateBytes;
+
+        private Batch(NetworkDirection direction)
+        {
+            this.direction = direction;
+            this.buffer.writeByte(BATCH_DISCRIMINATOR);
+        }
+
+        private void add(PacketBuffer message, int length)
+        {
+            buffer.writeVarInt(length);
+            if (messages++ == 0)
+            {
+                firstOffset = buffer.writerIndex();
+                firstLength = length;
+            }
+            buffer.writeBytes(message, message.readerIndex(), length);
+            final int packetBytes = packetOverhead + length;
+            separateBytes += PacketBuffer.getVarIntSize(packetBytes) + packetBytes;
+        }
+    }
+}
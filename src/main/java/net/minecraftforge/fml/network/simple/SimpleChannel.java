@@ -28,6 +28,8 @@ import net.minecraft.util.text.StringTextComponent;
 import net.minecraftforge.fml.network.*;
 import org.apache.commons.lang3.tuple.Pair;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -45,6 +47,8 @@ public class SimpleChannel
     private final IndexedMessageCodec indexedCodec;
     private final Optional<Consumer<NetworkEvent.ChannelRegistrationChangeEvent>> registryChangeConsumer;
     private List<Function<Boolean, ? extends List<? extends Pair<String,?>>>> loginPackets;
+    @Nullable
+    private MessageBatcher batcher;
 
     public SimpleChannel(NetworkInstance instance) {
         this(instance, Optional.empty());
@@ -106,7 +110,10 @@ public class SimpleChannel
 
     public <MSG> void sendTo(MSG message, NetworkManager manager, NetworkDirection direction)
     {
-        manager.sendPacket(toVanillaPacket(message, direction));
+        if (batcher != null && isPlay(direction))
+            batcher.add(manager, direction, message);
+        else
+            manager.sendPacket(toVanillaPacket(message, direction));
     }
 
     /**
@@ -121,9 +128,48 @@ public class SimpleChannel
      * @param <MSG> The type of the message
      */
     public <MSG> void send(PacketDistributor.PacketTarget target, MSG message) {
+        if (batcher != null && isPlay(target.getDirection())) {
+            final List<NetworkManager> managers = target.getNetworkManagers();
+            if (managers != null) {
+                batcher.add(managers, target.getDirection(), message);
+                return;
+            }
+            // Targets which cannot list their connections are sent to right away, so earlier messages must go first
+            batcher.flush();
+        }
         target.send(toVanillaPacket(message, target.getDirection()));
     }
 
+    private static boolean isPlay(NetworkDirection direction) {
+        return direction == NetworkDirection.PLAY_TO_CLIENT || direction == NetworkDirection.PLAY_TO_SERVER;
+    }
+
+    /**
+     * Coalesce the play messages sent on this channel to each connection during a tick into a single packet,
+     * sent at the end of the tick. Messages keep their order relative to each other, but are delayed relative
+     * to packets sent outside of this channel.
+     *
+     * Batching changes the wire format, so it must be enabled on both sides before any connection is made,
+     * typically right after creating the channel. Discriminator 255 is reserved for batches on batching channels.
+     *
+     * @return this
+     */
+    public SimpleChannel enableBatching() {
+        if (this.batcher == null) {
+            this.indexedCodec.enableBatching();
+            this.batcher = new MessageBatcher(this, instance.getChannelName());
+        }
+        return this;
+    }
+
+    /**
+     * @return the batcher holding the batching counters of this channel, or null if batching is not enabled
+     */
+    @Nullable
+    public MessageBatcher getBatcher() {
+        return this.batcher;
+    }
+
     public <MSG> IPacket<?> toVanillaPacket(MSG message, NetworkDirection direction)
     {
         return direction.buildPacket(toBuffer(message), instance.getChannelName()).getThis();
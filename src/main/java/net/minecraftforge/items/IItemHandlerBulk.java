@@ -0,0 +1,56 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.items;
+
+import net.minecraft.item.ItemStack;
+
+import javax.annotation.Nonnull;
+import java.util.function.Predicate;
+
+/**
+ * An {@link IItemHandler} that can move items in and out by count, without creating an {@link ItemStack} for every
+ * step of a transfer.
+ * <br>
+ * Used by {@link ItemHandlerHelper#transferItems(IItemHandler, IItemHandler, Predicate, int)}, which falls back to
+ * the plain {@link IItemHandler} methods for handlers not implementing this.
+ */
+public interface IItemHandlerBulk extends IItemHandler
+{
+    /**
+     * Inserts up to {@code count} items of the same kind as {@code stack} into any slots of this handler,
+     * as if {@link ItemHandlerHelper#insertItemStacked(IItemHandler, ItemStack, boolean)} was called with a stack of that size.
+     *
+     * @param stack    The kind of item to insert. Its size is ignored, and it must neither be modified nor stored by the handler.
+     * @param count    The number of items to insert, may exceed the max stack size of the item
+     * @param simulate If true, the insertion is only simulated
+     * @return The number of items inserted
+     */
+    int insertItems(@Nonnull ItemStack stack, int count, boolean simulate);
+
+    /**
+     * Removes up to {@code count} items from a slot, without returning them as a stack.
+     *
+     * @param slot     Slot to extract from
+     * @param count    The number of items to extract, may exceed the max stack size of the item
+     * @param simulate If true, the extraction is only simulated
+     * @return The number of items extracted
+     */
+    int extractItems(int slot, int count, boolean simulate);
+}
@@ -0,0 +1,74 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.items;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An {@link IItemHandler} that keeps track of which of its slots are empty and which items its slots hold,
+ * so helpers like {@link ItemHandlerHelper#insertItemStacked(IItemHandler, ItemStack, boolean)} don't have to scan
+ * every slot of large inventories.
+ * <br>
+ * Implementations must only accept insertions into empty slots or slots already holding the same item,
+ * slots found by neither {@link #findEmptySlot(int)} nor {@link #findSlotWithItem(Item, int)} are skipped.
+ * See {@link IndexedItemStackHandler} for the reference implementation.
+ */
+public interface IItemHandlerIndexed extends IItemHandler
+{
+    /**
+     * @param fromSlot The first slot to consider
+     * @return The lowest empty slot at or after {@code fromSlot}, or -1 if there is none
+     */
+    int findEmptySlot(int fromSlot);
+
+    /**
+     * @param item     The item to look for
+     * @param fromSlot The first slot to consider
+     * @return The lowest slot at or after {@code fromSlot} holding a stack of the item, or -1 if there is none
+     */
+    int findSlotWithItem(Item item, int fromSlot);
+
+    /**
+     * @return true if no slot holds a stack
+     */
+    boolean isEmpty();
+
+    /**
+     * @return true if every slot holds at least {@link #getSlotLimit(int)} items
+     */
+    boolean isFull();
+
+    /**
+     * @param stack    The stack to insert
+     * @param fromSlot The first slot to consider
+     * @return The lowest slot at or after {@code fromSlot} that is empty or holds the same item, or -1 if there is none
+     */
+    default int findInsertableSlot(@Nonnull ItemStack stack, int fromSlot)
+    {
+        int empty = findEmptySlot(fromSlot);
+        int matching = findSlotWithItem(stack.getItem(), fromSlot);
+        if (empty < 0)
+            return matching;
+        return matching < 0 ? empty : Math.min(empty, matching);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.items;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.NonNullList;
+
+import javax.annotation.Nullable;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * An {@link ItemStackHandler} that indexes its empty slots and the items its slots hold, for large inventories
+ * that are frequently inserted into.
+ * <br>
+ * The index only sees changes made through this handler. Stacks must not be resized behind its back, for example by
+ * shrinking the stack returned by {@link #getStackInSlot(int)}, and subclasses writing to {@link #stacks} directly
+ * must call {@link #updateSlotIndex(int)} for every changed slot.
+ */
+public class IndexedItemStackHandler extends ItemStackHandler implements IItemHandlerIndexed
+{
+    // Built on the first indexed query, and rebuilt whenever stacks is replaced
+    @Nullable
+    private SlotIndex slotIndex;
+
+    public IndexedItemStackHandler()
+    {
+        super();
+    }
+
+    public IndexedItemStackHandler(int size)
+    {
+        super(size);
+    }
+
+    public IndexedItemStackHandler(NonNullList<ItemStack> stacks)
+    {
+        super(stacks);
+    }
+
+    @Override
+    public int findEmptySlot(int fromSlot)
+    {
+        SlotIndex index = getSlotIndex();
+        for (int slot = index.empty.nextSetBit(Math.max(fromSlot, 0)); slot >= 0; slot = index.empty.nextSetBit(slot + 1))
+        {
+            if (this.stacks.get(slot).isEmpty())
+                return slot;
+            index.update(slot); // Changed without going through this handler
+        }
+        return -1;
+    }
+
+    @Override
+    public int findSlotWithItem(Item item, int fromSlot)
+    {
+        SlotIndex index = getSlotIndex();
+        BitSet slots = index.items.get(item);
+        if (slots == null)
+            return -1;
+        for (int slot = slots.nextSetBit(Math.max(fromSlot, 0)); slot >= 0; slot = slots.nextSetBit(slot + 1))
+        {
+            ItemStack stack = this.stacks.get(slot);
+            if (!stack.isEmpty() && stack.getItem() == item)
+                return slot;
+            index.update(slot); // Changed without going through this handler
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return getSlotIndex().items.isEmpty();
+    }
+
+    @Override
+    public boolean isFull()
+    {
+        return getSlotIndex().fullSlots == this.stacks.size();
+    }
+
+    @Override
+    int nextEmptySlot(int fromSlot)
+    {
+        return findEmptySlot(fromSlot);
+    }
+
+    @Override
+    int nextSlotWithItem(Item item, int fromSlot)
+    {
+        return findSlotWithItem(item, fromSlot);
+    }
+
+    @Override
+    void slotChanged(int slot)
+    {
+        updateSlotIndex(slot);
+    }
+
+    private SlotIndex getSlotIndex()
+    {
+        if (this.slotIndex == null || this.slotIndex.stacks != this.stacks)
+            this.slotIndex = new SlotIndex(this.stacks);
+        return this.slotIndex;
+    }
+
+    /**
+     * Updates the index of empty slots and items for a slot whose stack was replaced or resized.
+     * Subclasses changing {@link #stacks} directly should call this for every changed slot.
+     */
+    protected void updateSlotIndex(int slot)
+    {
+        if (this.slotIndex != null && this.slotIndex.stacks == this.stacks)
+            this.slotIndex.update(slot);
+    }
+
+    private final class SlotIndex
+    {
+        private final NonNullList<ItemStack> stacks;
+        private final BitSet empty = new BitSet();
+        private final BitSet full = new BitSet();
+        private final Map<Item, BitSet> items = new Reference2ObjectOpenHashMap<>();
+        private final Item[] slotItems;
+        private int fullSlots;
+
+        private SlotIndex(NonNullList<ItemStack> stacks)
+        {
+            this.stacks = stacks;
+            this.slotItems = new Item[stacks.size()];
+            this.empty.set(0, stacks.size());
+            for (int slot = 0; slot < stacks.size(); slot++)
+                update(slot);
+        }
+
+        private void update(int slot)
+        {
+            ItemStack stack = this.stacks.get(slot);
+            Item item = stack.isEmpty() ? null : stack.getItem();
+            Item previous = this.slotItems[slot];
+            if (item != previous)
+            {
+                if (previous != null)
+                {
+                    BitSet slots = this.items.get(previous);
+                    slots.clear(slot);
+                    if (slots.isEmpty())
+                        this.items.remove(previous);
+                }
+                if (item != null)
+                    this.items.computeIfAbsent(item, k -> new BitSet()).set(slot);
+                this.slotItems[slot] = item;
+                this.empty.set(slot, item == null);
+            }
+            boolean isFull = item != null && stack.getCount() >= getSlotLimit(slot);
+            if (isFull != this.full.get(slot))
+            {
+                this.full.set(slot, isFull);
+                this.fullSlots += isFull ? 1 : -1;
+            }
+        }
+    }
+}
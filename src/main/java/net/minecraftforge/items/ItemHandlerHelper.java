@@ -27,18 +27,37 @@ import net.minecraft.util.SoundCategory;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraftforge.items.wrapper.PlayerMainInvWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.function.Predicate;
 
 public class ItemHandlerHelper
 {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     @Nonnull
     public static ItemStack insertItem(IItemHandler dest, @Nonnull ItemStack stack, boolean simulate)
     {
         if (dest == null || stack.isEmpty())
             return stack;
 
+        if (dest instanceof IItemHandlerIndexed)
+        {
+            IItemHandlerIndexed indexed = (IItemHandlerIndexed) dest;
+            for (int i = indexed.findInsertableSlot(stack, 0); i >= 0; i = indexed.findInsertableSlot(stack, i + 1))
+            {
+                stack = dest.insertItem(i, stack, simulate);
+                if (stack.isEmpty())
+                {
+                    return ItemStack.EMPTY;
+                }
+            }
+            return stack;
+        }
+
         for (int i = 0; i < dest.getSlots(); i++)
         {
             stack = dest.insertItem(i, stack, simulate);
@@ -111,6 +130,11 @@ public class ItemHandlerHelper
             return insertItem(inventory, stack, simulate);
         }
 
+        if (inventory instanceof IItemHandlerIndexed)
+        {
+            return insertItemStacked((IItemHandlerIndexed) inventory, stack, simulate);
+        }
+
         int sizeInventory = inventory.getSlots();
 
         // go through the inventory and try to fill up already existing items
@@ -148,6 +172,112 @@ public class ItemHandlerHelper
         return stack;
     }
 
+    private static ItemStack insertItemStacked(IItemHandlerIndexed inventory, ItemStack stack, boolean simulate)
+    {
+        // only slots holding the same item can be filled up
+        for (int i = inventory.findSlotWithItem(stack.getItem(), 0); i >= 0; i = inventory.findSlotWithItem(stack.getItem(), i + 1))
+        {
+            if (canItemStacksStackRelaxed(inventory.getStackInSlot(i), stack))
+            {
+                stack = inventory.insertItem(i, stack, simulate);
+
+                if (stack.isEmpty())
+                {
+                    return ItemStack.EMPTY;
+                }
+            }
+        }
+
+        // insert remainder into empty slots
+        for (int i = inventory.findEmptySlot(0); i >= 0; i = inventory.findEmptySlot(i + 1))
+        {
+            stack = inventory.insertItem(i, stack, simulate);
+            if (stack.isEmpty())
+            {
+                break;
+            }
+        }
+
+        return stack;
+    }
+
+    /**
+     * Moves up to {@code maxItems} items accepted by the filter from one handler to another, filling up already present
+     * stacks in the destination first.
+     * <br>
+     * The items are extracted before they are inserted, and only what was actually extracted is inserted. Items the
+     * destination refuses after all are put back into the source. Handlers implementing {@link IItemHandlerBulk}
+     * move the items by count, so besides one template per source slot no stacks are copied except for the ones
+     * placed into empty slots of the destination.
+     * @param filter Tested with the stack in each slot of the source, which must not be modified
+     * @return The number of items moved
+     */
+    public static int transferItems(IItemHandler source, IItemHandler dest, Predicate<ItemStack> filter, int maxItems)
+    {
+        if (source == dest)
+            return 0;
+
+        int moved = 0;
+        for (int slot = 0; slot < source.getSlots() && moved < maxItems; slot++)
+        {
+            ItemStack stack = source.getStackInSlot(slot);
+            if (stack.isEmpty() || !filter.test(stack))
+                continue;
+
+            int available = extractItems(source, slot, maxItems - moved, true);
+            if (available <= 0)
+                continue;
+
+            // Extracting may change the stack in the slot, so a copy serves as the template
+            ItemStack template = stack.copy();
+            int accepted = insertItems(dest, template, available, true);
+            if (accepted <= 0)
+                continue;
+
+            int extracted = extractItems(source, slot, accepted, false);
+            if (extracted <= 0)
+                continue;
+            int inserted = insertItems(dest, template, extracted, false);
+            if (inserted < extracted)
+            {
+                // The destination took less than it simulated, return the rest to where it came from
+                ItemStack rest = source.insertItem(slot, copyStackWithSize(template, extracted - inserted), false);
+                if (!rest.isEmpty())
+                    rest = insertItemStacked(source, rest, false);
+                if (!rest.isEmpty())
+                    LOGGER.warn("Unable to return {} items of {} to the source after a failed transfer", rest.getCount(), rest);
+            }
+            moved += inserted;
+        }
+        return moved;
+    }
+
+    /**
+     * Inserts up to {@code count} items of the same kind as the stack, see {@link IItemHandlerBulk#insertItems(ItemStack, int, boolean)}.
+     * @return The number of items inserted
+     */
+    public static int insertItems(IItemHandler dest, @Nonnull ItemStack stack, int count, boolean simulate)
+    {
+        if (count <= 0 || stack.isEmpty())
+            return 0;
+        if (dest instanceof IItemHandlerBulk)
+            return ((IItemHandlerBulk) dest).insertItems(stack, count, simulate);
+        return count - insertItemStacked(dest, copyStackWithSize(stack, count), simulate).getCount();
+    }
+
+    /**
+     * Extracts up to {@code count} items from a slot, see {@link IItemHandlerBulk#extractItems(int, int, boolean)}.
+     * @return The number of items extracted
+     */
+    public static int extractItems(IItemHandler source, int slot, int count, boolean simulate)
+    {
+        if (count <= 0)
+            return 0;
+        if (source instanceof IItemHandlerBulk)
+            return ((IItemHandlerBulk) source).extractItems(slot, count, simulate);
+        return source.extractItem(slot, count, simulate).getCount();
+    }
+
     /** giveItemToPlayer without preferred slot */
     public static void giveItemToPlayer(PlayerEntity player, @Nonnull ItemStack stack) {
         giveItemToPlayer(player, stack, -1);
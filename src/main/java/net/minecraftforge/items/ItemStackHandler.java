@@ -19,18 +19,43 @@
 
 package net.minecraftforge.items;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.nbt.ListNBT;
 import net.minecraft.util.NonNullList;
 import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.common.util.ContentsListeners;
+import net.minecraftforge.common.util.IContentsChangeNotifier;
+import net.minecraftforge.common.util.IContentsListener;
 import net.minecraftforge.common.util.INBTSerializable;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, INBTSerializable<CompoundNBT>
+public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, IItemHandlerBulk, IContentsChangeNotifier, INBTSerializable<CompoundNBT>
 {
+    // Subclasses with their own insertion or extraction rules must keep going through them
+    private static final ClassValue<Boolean> BULK_TRANSFER = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                return type.getMethod("insertItem", int.class, ItemStack.class, boolean.class).getDeclaringClass() == ItemStackHandler.class &&
+                       type.getMethod("extractItem", int.class, int.class, boolean.class).getDeclaringClass() == ItemStackHandler.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return false;
+            }
+        }
+    };
+
     protected NonNullList<ItemStack> stacks;
+    @Nullable
+    private ContentsListeners contentsListeners;
 
     public ItemStackHandler()
     {
@@ -50,6 +75,8 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
     public void setSize(int size)
     {
         stacks = NonNullList.withSize(size, ItemStack.EMPTY);
+        if (contentsListeners != null)
+            contentsListeners.changed(0, size);
     }
 
     @Override
@@ -57,7 +84,7 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
     {
         validateSlotIndex(slot);
         this.stacks.set(slot, stack);
-        onContentsChanged(slot);
+        contentsChanged(slot);
     }
 
     @Override
@@ -113,7 +140,7 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
             {
                 existing.grow(reachedLimit ? limit : stack.getCount());
             }
-            onContentsChanged(slot);
+            contentsChanged(slot);
         }
 
         return reachedLimit ? ItemHandlerHelper.copyStackWithSize(stack, stack.getCount()- limit) : ItemStack.EMPTY;
@@ -140,7 +167,7 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
             if (!simulate)
             {
                 this.stacks.set(slot, ItemStack.EMPTY);
-                onContentsChanged(slot);
+                contentsChanged(slot);
                 return existing;
             }
             else
@@ -153,13 +180,102 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
             if (!simulate)
             {
                 this.stacks.set(slot, ItemHandlerHelper.copyStackWithSize(existing, existing.getCount() - toExtract));
-                onContentsChanged(slot);
+                contentsChanged(slot);
             }
 
             return ItemHandlerHelper.copyStackWithSize(existing, toExtract);
         }
     }
 
+    @Override
+    public int insertItems(@Nonnull ItemStack stack, int count, boolean simulate)
+    {
+        if (stack.isEmpty() || count <= 0)
+            return 0;
+
+        if (!BULK_TRANSFER.get(getClass()))
+            return count - ItemHandlerHelper.insertItemStacked(this, ItemHandlerHelper.copyStackWithSize(stack, count), simulate).getCount();
+
+        ContentsListeners listeners = this.contentsListeners;
+        if (listeners != null)
+            listeners.beginBatch();
+        try
+        {
+            int remaining = count;
+            for (int slot = nextSlotWithItem(stack.getItem(), 0); slot >= 0 && remaining > 0; slot = nextSlotWithItem(stack.getItem(), slot + 1))
+            {
+                ItemStack existing = this.stacks.get(slot);
+                if (!ItemHandlerHelper.canItemStacksStack(stack, existing) || !isItemValid(slot, stack))
+                    continue;
+
+                int inserted = Math.min(getStackLimit(slot, stack) - existing.getCount(), remaining);
+                if (inserted <= 0)
+                    continue;
+
+                if (!simulate)
+                {
+                    existing.grow(inserted);
+                    contentsChanged(slot);
+                }
+                remaining -= inserted;
+            }
+
+            for (int slot = nextEmptySlot(0); slot >= 0 && remaining > 0; slot = nextEmptySlot(slot + 1))
+            {
+                if (!isItemValid(slot, stack))
+                    continue;
+
+                int inserted = Math.min(getStackLimit(slot, stack), remaining);
+                if (inserted <= 0)
+                    continue;
+
+                if (!simulate)
+                {
+                    this.stacks.set(slot, ItemHandlerHelper.copyStackWithSize(stack, inserted));
+                    contentsChanged(slot);
+                }
+                remaining -= inserted;
+            }
+
+            return count - remaining;
+        }
+        finally
+        {
+            if (listeners != null)
+                listeners.endBatch();
+        }
+    }
+
+    @Override
+    public int extractItems(int slot, int count, boolean simulate)
+    {
+        if (count <= 0)
+            return 0;
+
+        if (!BULK_TRANSFER.get(getClass()))
+            return extractItem(slot, count, simulate).getCount();
+
+        validateSlotIndex(slot);
+
+        ItemStack existing = this.stacks.get(slot);
+
+        if (existing.isEmpty())
+            return 0;
+
+        int extracted = Math.min(count, existing.getCount());
+
+        if (!simulate)
+        {
+            if (extracted == existing.getCount())
+                this.stacks.set(slot, ItemStack.EMPTY);
+            else
+                existing.shrink(extracted);
+            contentsChanged(slot);
+        }
+
+        return extracted;
+    }
+
     @Override
     public int getSlotLimit(int slot)
     {
@@ -177,6 +293,55 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
         return true;
     }
 
+    // Overridden by IndexedItemStackHandler to use its index
+    int nextEmptySlot(int fromSlot)
+    {
+        for (int slot = Math.max(fromSlot, 0); slot < this.stacks.size(); slot++)
+        {
+            if (this.stacks.get(slot).isEmpty())
+                return slot;
+        }
+        return -1;
+    }
+
+    int nextSlotWithItem(Item item, int fromSlot)
+    {
+        for (int slot = Math.max(fromSlot, 0); slot < this.stacks.size(); slot++)
+        {
+            ItemStack stack = this.stacks.get(slot);
+            if (!stack.isEmpty() && stack.getItem() == item)
+                return slot;
+        }
+        return -1;
+    }
+
+    @Override
+    public void addContentsListener(IContentsListener listener)
+    {
+        if (this.contentsListeners == null)
+            this.contentsListeners = new ContentsListeners();
+        this.contentsListeners.addContentsListener(listener);
+    }
+
+    @Override
+    public void removeContentsListener(IContentsListener listener)
+    {
+        if (this.contentsListeners != null)
+            this.contentsListeners.removeContentsListener(listener);
+    }
+
+    private void contentsChanged(int slot)
+    {
+        slotChanged(slot);
+        onContentsChanged(slot);
+        if (this.contentsListeners != null)
+            this.contentsListeners.changed(slot);
+    }
+
+    void slotChanged(int slot)
+    {
+    }
+
     @Override
     public CompoundNBT serializeNBT()
     {
@@ -199,6 +364,22 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
 
     @Override
     public void deserializeNBT(CompoundNBT nbt)
+    {
+        ContentsListeners listeners = this.contentsListeners;
+        if (listeners != null)
+            listeners.beginBatch();
+        try
+        {
+            readSlots(nbt);
+        }
+        finally
+        {
+            if (listeners != null)
+                listeners.endBatch();
+        }
+    }
+
+    private void readSlots(CompoundNBT nbt)
     {
         setSize(nbt.contains("Size", Constants.NBT.TAG_INT) ? nbt.getInt("Size") : stacks.size());
         ListNBT tagList = nbt.getList("Items", Constants.NBT.TAG_COMPOUND);
@@ -0,0 +1,108 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.items;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.common.util.NonNullConsumer;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.Optional;
+
+/**
+ * Caches the {@link IItemHandler} capabilities of the tile entities next to a block that does not move, such as a hopper,
+ * so repeated lookups neither query the world nor allocate.
+ * <br>
+ * A cached handler is dropped when its {@link LazyOptional} is invalidated, when the tile entity is removed or when
+ * the neighbouring block state changes. Missing handlers are not cached, they are looked up again every time.
+ */
+public class NeighbourItemHandlerCache
+{
+    private final Entry[] entries = new Entry[Direction.values().length];
+
+    /**
+     * @param pos The position of the block owning this cache
+     * @param side The side of that block to look at, the handler is queried for the opposite side
+     * @return The handler and tile entity next to the block, see {@link VanillaInventoryCodeHooks#getItemHandler(World, double, double, double, Direction)}
+     */
+    public Optional<Pair<IItemHandler, Object>> getItemHandler(World world, BlockPos pos, Direction side)
+    {
+        Entry entry = this.entries[side.getIndex()];
+        if (entry == null)
+            entry = this.entries[side.getIndex()] = new Entry();
+        if (!entry.isValid(world))
+            entry.resolve(world, pos.offset(side), side.getOpposite());
+        return entry.result;
+    }
+
+    private static final class Entry implements NonNullConsumer<LazyOptional<IItemHandler>>
+    {
+        private Optional<Pair<IItemHandler, Object>> result = Optional.empty();
+        private LazyOptional<IItemHandler> capability;
+        private TileEntity tileEntity;
+        private BlockState state;
+        private boolean valid;
+
+        private boolean isValid(World world)
+        {
+            // The tile entity resets its cached state when its block changes, so this only queries the world after a change
+            return this.valid && !this.tileEntity.isRemoved() && this.tileEntity.getWorld() == world && this.tileEntity.getBlockState() == this.state;
+        }
+
+        private void resolve(World world, BlockPos pos, Direction side)
+        {
+            this.valid = false;
+            this.result = Optional.empty();
+            this.capability = null;
+            this.tileEntity = null;
+            this.state = null;
+
+            if (!world.getBlockState(pos).hasTileEntity())
+                return;
+            TileEntity tileEntity = world.getTileEntity(pos);
+            if (tileEntity == null)
+                return;
+            LazyOptional<IItemHandler> capability = tileEntity.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, side);
+            Optional<IItemHandler> handler = capability.resolve();
+            if (!handler.isPresent())
+                return;
+
+            this.result = Optional.of(ImmutablePair.of(handler.get(), tileEntity));
+            this.capability = capability;
+            this.tileEntity = tileEntity;
+            this.state = tileEntity.getBlockState();
+            this.valid = true;
+            capability.addListener(this);
+        }
+
+        @Override
+        public void accept(LazyOptional<IItemHandler> capability)
+        {
+            // Listeners can't be removed, so ignore capabilities this entry has moved on from
+            if (capability == this.capability)
+                this.valid = false;
+        }
+    }
+}
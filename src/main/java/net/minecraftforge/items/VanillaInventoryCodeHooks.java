@@ -49,38 +49,38 @@ public class VanillaInventoryCodeHooks
     @Nullable
     public static Boolean extractHook(IHopper dest)
     {
-        return getItemHandler(dest, Direction.UP)
-                .map(itemHandlerResult -> {
-                    IItemHandler handler = itemHandlerResult.getKey();
+        Optional<Pair<IItemHandler, Object>> itemHandlerResult = getItemHandler(dest, Direction.UP);
+        if (!itemHandlerResult.isPresent())
+            return null; // TODO bad null
 
-                    for (int i = 0; i < handler.getSlots(); i++)
+        IItemHandler handler = itemHandlerResult.get().getKey();
+
+        for (int i = 0; i < handler.getSlots(); i++)
+        {
+            ItemStack extractItem = handler.extractItem(i, 1, true);
+            if (!extractItem.isEmpty())
+            {
+                for (int j = 0; j < dest.getSizeInventory(); j++)
+                {
+                    ItemStack destStack = dest.getStackInSlot(j);
+                    if (dest.isItemValidForSlot(j, extractItem) && (destStack.isEmpty() || destStack.getCount() < destStack.getMaxStackSize() && destStack.getCount() < dest.getInventoryStackLimit() && ItemHandlerHelper.canItemStacksStack(extractItem, destStack)))
                     {
-                        ItemStack extractItem = handler.extractItem(i, 1, true);
-                        if (!extractItem.isEmpty())
+                        extractItem = handler.extractItem(i, 1, false);
+                        if (destStack.isEmpty())
+                            dest.setInventorySlotContents(j, extractItem);
+                        else
                         {
-                            for (int j = 0; j < dest.getSizeInventory(); j++)
-                            {
-                                ItemStack destStack = dest.getStackInSlot(j);
-                                if (dest.isItemValidForSlot(j, extractItem) && (destStack.isEmpty() || destStack.getCount() < destStack.getMaxStackSize() && destStack.getCount() < dest.getInventoryStackLimit() && ItemHandlerHelper.canItemStacksStack(extractItem, destStack)))
-                                {
-                                    extractItem = handler.extractItem(i, 1, false);
-                                    if (destStack.isEmpty())
-                                        dest.setInventorySlotContents(j, extractItem);
-                                    else
-                                    {
-                                        destStack.grow(1);
-                                        dest.setInventorySlotContents(j, destStack);
-                                    }
-                                    dest.markDirty();
-                                    return true;
-                                }
-                            }
+                            destStack.grow(1);
+                            dest.setInventorySlotContents(j, destStack);
                         }
+                        dest.markDirty();
+                        return true;
                     }
+                }
+            }
+        }
 
-                    return false;
-                })
-                .orElse(null); // TODO bad null
+        return false;
     }
 
     /**
@@ -119,41 +119,51 @@ public class VanillaInventoryCodeHooks
     public static boolean insertHook(HopperTileEntity hopper)
     {
         Direction hopperFacing = hopper.getBlockState().get(HopperBlock.FACING);
-        return getItemHandler(hopper, hopperFacing)
-                .map(destinationResult -> {
-                    IItemHandler itemHandler = destinationResult.getKey();
-                    Object destination = destinationResult.getValue();
-                    if (isFull(itemHandler))
+        Optional<Pair<IItemHandler, Object>> destinationResult = getItemHandler(hopper, hopperFacing);
+        if (!destinationResult.isPresent())
+            return false;
+
+        IItemHandler itemHandler = destinationResult.get().getKey();
+        Object destination = destinationResult.get().getValue();
+        if (isFull(itemHandler))
+        {
+            return false;
+        }
+        else
+        {
+            for (int i = 0; i < hopper.getSizeInventory(); ++i)
+            {
+                if (!hopper.getStackInSlot(i).isEmpty())
+                {
+                    ItemStack originalSlotContents = hopper.getStackInSlot(i).copy();
+                    ItemStack insertStack = hopper.decrStackSize(i, 1);
+                    ItemStack remainder = putStackInInventoryAllSlots(hopper, destination, itemHandler, insertStack);
+
+                    if (remainder.isEmpty())
                     {
-                        return false;
+                        return true;
                     }
-                    else
-                    {
-                        for (int i = 0; i < hopper.getSizeInventory(); ++i)
-                        {
-                            if (!hopper.getStackInSlot(i).isEmpty())
-                            {
-                                ItemStack originalSlotContents = hopper.getStackInSlot(i).copy();
-                                ItemStack insertStack = hopper.decrStackSize(i, 1);
-                                ItemStack remainder = putStackInInventoryAllSlots(hopper, destination, itemHandler, insertStack);
-
-                                if (remainder.isEmpty())
-                                {
-                                    return true;
-                                }
 
-                                hopper.setInventorySlotContents(i, originalSlotContents);
-                            }
-                        }
+                    hopper.setInventorySlotContents(i, originalSlotContents);
+                }
+            }
 
-                        return false;
-                    }
-                })
-                .orElse(false);
+            return false;
+        }
     }
 
     private static ItemStack putStackInInventoryAllSlots(TileEntity source, Object destination, IItemHandler destInventory, ItemStack stack)
     {
+        if (destInventory instanceof IItemHandlerIndexed)
+        {
+            // Only empty slots and slots holding the same item can take the stack
+            IItemHandlerIndexed indexed = (IItemHandlerIndexed) destInventory;
+            for (int slot = indexed.findInsertableSlot(stack, 0); slot >= 0 && !stack.isEmpty(); slot = indexed.findInsertableSlot(stack, slot + 1))
+            {
+                stack = insertStack(source, destination, destInventory, stack, slot);
+            }
+            return stack;
+        }
         for (int slot = 0; slot < destInventory.getSlots() && !stack.isEmpty(); slot++)
         {
             stack = insertStack(source, destination, destInventory, stack, slot);
@@ -213,6 +223,12 @@ public class VanillaInventoryCodeHooks
 
     private static Optional<Pair<IItemHandler, Object>> getItemHandler(IHopper hopper, Direction hopperFacing)
     {
+        if (hopper instanceof HopperTileEntity)
+        {
+            // Hoppers don't move, so their neighbours' handlers can be kept until they are invalidated
+            HopperTileEntity hopperTileEntity = (HopperTileEntity) hopper;
+            return hopperTileEntity.getItemHandlerCache().getItemHandler(hopperTileEntity.getWorld(), hopperTileEntity.getPos(), hopperFacing);
+        }
         double x = hopper.getXPos() + (double) hopperFacing.getXOffset();
         double y = hopper.getYPos() + (double) hopperFacing.getYOffset();
         double z = hopper.getZPos() + (double) hopperFacing.getZOffset();
@@ -221,6 +237,10 @@ public class VanillaInventoryCodeHooks
 
     private static boolean isFull(IItemHandler itemHandler)
     {
+        if (itemHandler instanceof IItemHandlerIndexed)
+        {
+            return ((IItemHandlerIndexed) itemHandler).isFull();
+        }
         for (int slot = 0; slot < itemHandler.getSlots(); slot++)
         {
             ItemStack stackInSlot = itemHandler.getStackInSlot(slot);
@@ -234,6 +254,10 @@ public class VanillaInventoryCodeHooks
 
     private static boolean isEmpty(IItemHandler itemHandler)
     {
+        if (itemHandler instanceof IItemHandlerIndexed)
+        {
+            return ((IItemHandlerIndexed) itemHandler).isEmpty();
+        }
         for (int slot = 0; slot < itemHandler.getSlots(); slot++)
         {
             ItemStack stackInSlot = itemHandler.getStackInSlot(slot);
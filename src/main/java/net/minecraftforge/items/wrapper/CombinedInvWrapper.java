@@ -20,13 +20,32 @@
 package net.minecraftforge.items.wrapper;
 
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandlerBulk;
 import net.minecraftforge.items.IItemHandlerModifiable;
+import net.minecraftforge.items.ItemHandlerHelper;
 
 import javax.annotation.Nonnull;
 
 // combines multiple IItemHandlerModifiable into one interface
-public class CombinedInvWrapper implements IItemHandlerModifiable
+public class CombinedInvWrapper implements IItemHandlerModifiable, IItemHandlerBulk
 {
+    // Subclasses with their own insertion or extraction rules must keep going through them
+    private static final ClassValue<Boolean> BULK_TRANSFER = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                return type.getMethod("insertItem", int.class, ItemStack.class, boolean.class).getDeclaringClass() == CombinedInvWrapper.class &&
+                       type.getMethod("extractItem", int.class, int.class, boolean.class).getDeclaringClass() == CombinedInvWrapper.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return false;
+            }
+        }
+    };
 
     protected final IItemHandlerModifiable[] itemHandler; // the handlers
     protected final int[] baseIndex; // index-offsets of the different handlers
@@ -124,6 +143,56 @@ public class CombinedInvWrapper implements IItemHandlerModifiable
         return handler.extractItem(slot, amount, simulate);
     }
 
+    @Override
+    public int insertItems(@Nonnull ItemStack stack, int count, boolean simulate)
+    {
+        if (stack.isEmpty() || count <= 0)
+            return 0;
+
+        if (!BULK_TRANSFER.get(getClass()))
+            return count - ItemHandlerHelper.insertItemStacked(this, ItemHandlerHelper.copyStackWithSize(stack, count), simulate).getCount();
+
+        // like insertItemStacked, fill up the matching stacks of every handler before using any empty slot
+        ItemStack remainder = ItemHandlerHelper.copyStackWithSize(stack, count);
+        for (IItemHandlerModifiable handler : itemHandler)
+        {
+            for (int slot = 0; slot < handler.getSlots(); slot++)
+            {
+                if (ItemHandlerHelper.canItemStacksStackRelaxed(handler.getStackInSlot(slot), remainder))
+                {
+                    remainder = handler.insertItem(slot, remainder, simulate);
+                    if (remainder.isEmpty())
+                        return count;
+                }
+            }
+        }
+        for (IItemHandlerModifiable handler : itemHandler)
+        {
+            for (int slot = 0; slot < handler.getSlots(); slot++)
+            {
+                if (handler.getStackInSlot(slot).isEmpty())
+                {
+                    remainder = handler.insertItem(slot, remainder, simulate);
+                    if (remainder.isEmpty())
+                        return count;
+                }
+            }
+        }
+        return count - remainder.getCount();
+    }
+
+    @Override
+    public int extractItems(int slot, int count, boolean simulate)
+    {
+        if (!BULK_TRANSFER.get(getClass()))
+            return extractItem(slot, count, simulate).getCount();
+
+        int index = getIndexForSlot(slot);
+        IItemHandlerModifiable handler = getHandlerFromIndex(index);
+        slot = getSlotFromIndex(slot, index);
+        return ItemHandlerHelper.extractItems(handler, slot, count, simulate);
+    }
+
     @Override
     public int getSlotLimit(int slot)
     {
@@ -21,13 +21,32 @@ package net.minecraftforge.items.wrapper;
 
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandlerBulk;
 import net.minecraftforge.items.IItemHandlerModifiable;
 import net.minecraftforge.items.ItemHandlerHelper;
 
 import javax.annotation.Nonnull;
 
-public class InvWrapper implements IItemHandlerModifiable
+public class InvWrapper implements IItemHandlerModifiable, IItemHandlerBulk
 {
+    // Subclasses with their own insertion or extraction rules must keep going through them
+    private static final ClassValue<Boolean> BULK_TRANSFER = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                return type.getMethod("insertItem", int.class, ItemStack.class, boolean.class).getDeclaringClass() == InvWrapper.class &&
+                       type.getMethod("extractItem", int.class, int.class, boolean.class).getDeclaringClass() == InvWrapper.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return false;
+            }
+        }
+    };
+
     private final IInventory inv;
 
     public InvWrapper(IInventory inv)
@@ -192,6 +211,79 @@ public class InvWrapper implements IItemHandlerModifiable
         }
     }
 
+    @Override
+    public int insertItems(@Nonnull ItemStack stack, int count, boolean simulate)
+    {
+        if (stack.isEmpty() || count <= 0)
+            return 0;
+
+        if (!BULK_TRANSFER.get(getClass()))
+            return count - ItemHandlerHelper.insertItemStacked(this, ItemHandlerHelper.copyStackWithSize(stack, count), simulate).getCount();
+
+        int remaining = count;
+        for (int slot = 0; slot < getSlots() && remaining > 0; slot++)
+        {
+            ItemStack stackInSlot = getInv().getStackInSlot(slot);
+            if (stackInSlot.isEmpty() || !ItemHandlerHelper.canItemStacksStack(stack, stackInSlot) || !getInv().isItemValidForSlot(slot, stack))
+                continue;
+
+            int m = Math.min(Math.min(stackInSlot.getMaxStackSize(), getSlotLimit(slot)) - stackInSlot.getCount(), remaining);
+            if (m <= 0)
+                continue;
+
+            if (!simulate)
+            {
+                stackInSlot.grow(m);
+                getInv().setInventorySlotContents(slot, stackInSlot);
+            }
+            remaining -= m;
+        }
+
+        for (int slot = 0; slot < getSlots() && remaining > 0; slot++)
+        {
+            if (!getInv().getStackInSlot(slot).isEmpty() || !getInv().isItemValidForSlot(slot, stack))
+                continue;
+
+            int m = Math.min(Math.min(stack.getMaxStackSize(), getSlotLimit(slot)), remaining);
+            if (m <= 0)
+                continue;
+
+            if (!simulate)
+                getInv().setInventorySlotContents(slot, ItemHandlerHelper.copyStackWithSize(stack, m));
+            remaining -= m;
+        }
+
+        if (!simulate && remaining < count)
+            getInv().markDirty();
+        return count - remaining;
+    }
+
+    @Override
+    public int extractItems(int slot, int count, boolean simulate)
+    {
+        if (count <= 0)
+            return 0;
+
+        if (!BULK_TRANSFER.get(getClass()))
+            return extractItem(slot, count, simulate).getCount();
+
+        ItemStack stackInSlot = getInv().getStackInSlot(slot);
+
+        if (stackInSlot.isEmpty())
+            return 0;
+
+        int m = Math.min(stackInSlot.getCount(), count);
+
+        if (!simulate)
+        {
+            stackInSlot.shrink(m);
+            getInv().setInventorySlotContents(slot, stackInSlot.isEmpty() ? ItemStack.EMPTY : stackInSlot);
+            getInv().markDirty();
+        }
+
+        return m;
+    }
+
     @Override
     public void setStackInSlot(int slot, @Nonnull ItemStack stack)
     {
@@ -19,6 +19,7 @@
 
 package net.minecraftforge.registries;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
@@ -31,6 +32,7 @@ import java.util.Map.Entry;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
 import net.minecraftforge.fml.loading.AdvancedLogMessageAdapter;
@@ -46,7 +48,9 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.nbt.ListNBT;
@@ -97,6 +101,9 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     private V defaultValue = null;
     boolean isFrozen = false;
+    // Array and identity backed lookups, built while the registry is frozen and dropped whenever it changes
+    @Nullable
+    private volatile Lookup<V> lookup;
 
     private final ResourceLocation name;
     private final RegistryKey<Registry<V>> key;
@@ -220,6 +227,14 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     public V getValue(ResourceLocation key)
     {
         V ret = this.names.get(key);
+        if (ret != null)
+            return ret;
+        Lookup<V> lookup = getLookup();
+        if (lookup != null)
+        {
+            ret = lookup.aliased.get(key);
+            return ret == null ? this.defaultValue : ret;
+        }
         key = this.aliases.get(key);
         while (ret == null && key != null)
         {
@@ -271,6 +286,9 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     public int getID(V value)
     {
+        Lookup<V> lookup = getLookup();
+        if (lookup != null)
+            return lookup.idsByValue.getInt(value);
         Integer ret = this.ids.inverse().get(value);
         if (ret == null && this.defaultValue != null)
             ret = this.ids.inverse().get(this.defaultValue);
@@ -291,8 +309,12 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         return getIDRaw(this.names.get(name));
     }
 
+    @SuppressWarnings("unchecked")
     public V getValue(int id)
     {
+        Lookup<V> lookup = getLookup();
+        if (lookup != null && lookup.values != null)
+            return id >= 0 && id < lookup.values.length ? (V)lookup.values[id] : this.defaultValue;
         V ret = this.ids.get(id);
         return ret == null ? this.defaultValue : ret;
     }
@@ -373,6 +395,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             this.defaultValue = value;
         }
 
+        this.lookup = null;
         this.names.put(key, value);
         this.keys.put(RegistryKey.getOrCreateKey(this.key, key), value);
         this.ids.put(idToUse, value);
@@ -426,6 +449,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             return;
         }
 
+        this.lookup = null;
         this.aliases.put(from, to);
         LOGGER.trace(REGISTRIES,"Registry {} alias: {} -> {}", this.superType.getSimpleName(), from, to);
     }
@@ -533,6 +557,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             throw new IllegalArgumentException("Attempted to copy to incompatible registry: " + name + " " + from.superType + " -> " + this.superType);
 
         this.isFrozen = false;
+        this.lookup = null;
 
         if (this.clear != null)
             this.clear.onClear(this, stage);
@@ -616,6 +641,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         this.aliases.clear();
         this.dummies.clear();
 
+        this.lookup = null;
         this.ids.clear();
         this.names.clear();
         this.keys.clear();
@@ -634,6 +660,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         V value = this.names.remove(key);
         if (value != null)
         {
+            this.lookup = null;
             RegistryKey<V> rkey = this.keys.inverse().remove(value);
             if (rkey == null)
                 throw new IllegalStateException("Removed a entry that did not have an associated RegistryKey: " + key + " " + value.toString() + " This should never happen unless hackery!");
@@ -650,6 +677,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     void block(int id)
     {
+        this.lookup = null;
         this.blocked.add(id);
         this.availabilityMap.set(id);
     }
@@ -667,11 +695,22 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     public void freeze()
     {
         this.isFrozen = true;
+        getLookup();
     }
 
     public void unfreeze()
     {
         this.isFrozen = false;
+        this.lookup = null;
+    }
+
+    @Nullable
+    private Lookup<V> getLookup()
+    {
+        Lookup<V> lookup = this.lookup;
+        if (lookup == null && this.isFrozen)
+            this.lookup = lookup = new Lookup<>(this);
+        return lookup;
     }
 
     RegistryEvent.Register<V> getRegisterEvent(ResourceLocation name)
@@ -790,6 +829,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             V value = this.names.remove(key);
             if (value == null)
                 throw new IllegalStateException("ContainsKey for " + key + " was true, but removing by name returned no value.. This should never happen unless hackery!");
+            this.lookup = null;
 
             RegistryKey<V> rkey = this.keys.inverse().remove(value); // Remove from the RegistryKey -> Value map
             if (rkey == null)
@@ -825,6 +865,21 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         return ret;
     }
 
+    /**
+     * The snapshot sent to clients when they log in. While the registry is frozen it is only built once
+     * and shared between connections, so it must not be modified.
+     */
+    Snapshot getSyncSnapshot()
+    {
+        Lookup<V> lookup = getLookup();
+        if (lookup == null)
+            return makeSnapshot();
+        Snapshot ret = lookup.syncSnapshot;
+        if (ret == null)
+            lookup.syncSnapshot = ret = makeSnapshot();
+        return ret;
+    }
+
     Map<ResourceLocation, String> getOverrideOwners()
     {
         Map<ResourceLocation, String> ret = Maps.newHashMap();
@@ -839,6 +894,45 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         return ret;
     }
 
+    private static class Lookup<V extends IForgeRegistryEntry<V>>
+    {
+        // Null if the ids are too sparse for an array
+        @Nullable
+        private final Object[] values;
+        private final Reference2IntOpenHashMap<V> idsByValue;
+        private final Map<ResourceLocation, V> aliased = Maps.newHashMap();
+        @Nullable
+        private volatile Snapshot syncSnapshot;
+
+        private Lookup(ForgeRegistry<V> registry)
+        {
+            int maxId = -1;
+            for (int id : registry.ids.keySet())
+                maxId = Math.max(maxId, id);
+            if (maxId < registry.ids.size() * 4 + 1024)
+            {
+                this.values = new Object[maxId + 1];
+                Arrays.fill(this.values, registry.defaultValue);
+                registry.ids.forEach((id, value) -> this.values[id] = value);
+            }
+            else
+            {
+                this.values = null;
+            }
+
+            this.idsByValue = new Reference2IntOpenHashMap<>(registry.ids.size());
+            registry.ids.forEach((id, value) -> this.idsByValue.put(value, (int)id));
+            this.idsByValue.defaultReturnValue(registry.defaultValue == null ? -1 : registry.getIDRaw(registry.defaultValue));
+
+            for (ResourceLocation alias : registry.aliases.keySet())
+            {
+                V value = registry.getRaw(alias);
+                if (value != null)
+                    this.aliased.put(alias, value);
+            }
+        }
+    }
+
     public static class Snapshot
     {
         private static final Comparator<ResourceLocation> sorter = (a,b) -> a.compareNamespaced(b);
@@ -848,6 +942,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         public final Set<ResourceLocation> dummied = Sets.newTreeSet(sorter);
         public final Map<ResourceLocation, String> overrides = Maps.newTreeMap(sorter);
         private PacketBuffer binary = null;
+        private String hash = null;
 
         public CompoundNBT write()
         {
@@ -969,6 +1064,26 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             return new PacketBuffer(binary.slice());
         }
 
+        /**
+         * @return the content hash of the {@link #getPacketData() packet data}, identifying this snapshot in client side caches
+         */
+        public synchronized String getHash()
+        {
+            if (hash == null)
+                hash = hash(getPacketData());
+            return hash;
+        }
+
+        /**
+         * Hash the readable bytes of the buffer, without consuming them.
+         */
+        public static String hash(ByteBuf data)
+        {
+            byte[] bytes = new byte[data.readableBytes()];
+            data.getBytes(data.readerIndex(), bytes);
+            return Hashing.sha256().hashBytes(bytes).toString();
+        }
+
         public static Snapshot read(PacketBuffer buff)
         {
             if (buff == null)
@@ -19,7 +19,7 @@
 
 package net.minecraftforge.registries;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -190,11 +190,31 @@ public class RegistryManager
         this.superTypes.clear();
     }
 
-    public static List<Pair<String, FMLHandshakeMessages.S2CRegistry>> generateRegistryPackets(boolean isLocal)
+    /**
+     * Build the registry packets for a client. Registries the client reported an up to date cached copy of
+     * are sent as a reference to that copy instead of the full snapshot.
+     *
+     * @param cachedHashes the content hashes of the snapshots held in the client's cache, by registry name
+     */
+    public static List<Pair<String, FMLHandshakeMessages.S2CRegistry>> generateRegistryPackets(Map<ResourceLocation, String> cachedHashes)
     {
-        return !isLocal ? ACTIVE.takeSnapshot(false).entrySet().stream().
-                map(e->Pair.of("Registry " + e.getKey(), new FMLHandshakeMessages.S2CRegistry(e.getKey(), e.getValue()))).
-                collect(Collectors.toList()) : Collections.emptyList();
+        List<Pair<String, FMLHandshakeMessages.S2CRegistry>> ret = new ArrayList<>();
+        for (ResourceLocation name : ACTIVE.synced)
+        {
+            Snapshot snapshot = ACTIVE.getRegistry(name).getSyncSnapshot();
+            if (snapshot.getHash().equals(cachedHashes.get(name)))
+                ret.add(Pair.of("Registry " + name, FMLHandshakeMessages.S2CRegistry.cached(name, snapshot.getHash())));
+            else
+                ret.add(Pair.of("Registry " + name, new FMLHandshakeMessages.S2CRegistry(name, snapshot)));
+        }
+        return ret;
+    }
+
+    public static Map<ResourceLocation, String> getRegistryHashesForSyncToClient()
+    {
+        Map<ResourceLocation, String> ret = Maps.newHashMap();
+        ACTIVE.synced.forEach(name -> ret.put(name, ACTIVE.getRegistry(name).getSyncSnapshot().getHash()));
+        return ret;
     }
 
     public static List<ResourceLocation> getRegistryNamesForSyncToClient()
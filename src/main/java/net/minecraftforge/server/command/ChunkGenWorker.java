@@ -19,31 +19,64 @@
 
 package net.minecraftforge.server.command;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 import net.minecraft.command.CommandSource;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.text.TextComponent;
 import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraft.world.server.ServerChunkProvider;
 import net.minecraft.world.server.ServerWorld;
-import net.minecraft.world.DimensionType;
-import net.minecraft.world.chunk.ChunkStatus;
-import net.minecraft.world.chunk.IChunk;
+import net.minecraft.world.server.TicketType;
+import net.minecraft.world.storage.WorldSavedData;
+import net.minecraftforge.common.WorldWorkerManager;
 import net.minecraftforge.common.WorldWorkerManager.IWorker;
 
+/**
+ * Generates chunks in a spiral around a starting chunk.
+ *
+ * Chunks are requested through tickets, so generation happens on the world's chunk executors while a bounded
+ * window of requests is in flight. Finished chunks have their ticket released right away so they unload and save,
+ * and no new chunks are requested while too many chunks are loaded. Chunks which fail to generate, or take too long,
+ * are dropped and counted as failed. Progress is stored with the world, and an
+ * unfinished task is resumed when the server starts again.
+ */
 public class ChunkGenWorker implements IWorker
 {
+    private static final TicketType<ChunkPos> PREGEN = TicketType.create("forge:pregen", Comparator.comparingLong(ChunkPos::asLong));
+    // Chunk requests kept in flight at once
+    private static final int WINDOW = 64;
+    // Stop requesting chunks while this many more chunks than at the start are loaded, waiting to be saved or unloaded
+    private static final int MAX_EXTRA_LOADED = 4096;
+    // Give up on a chunk which has not finished this long after it was requested, generation failed or is stuck
+    private static final long TIMEOUT_NANOS = 120 * 1_000_000_000L;
+
     private final CommandSource listener;
     protected final BlockPos start;
     protected final int total;
     private final ServerWorld dim;
-    private final Queue<BlockPos> queue;
+    private final int interval;
     private final int notificationFrequency;
+    private final Progress progress;
+    private final List<ChunkPos> inFlight = new ArrayList<>();
+    private final List<Integer> inFlightIndices = new ArrayList<>();
+    private final List<Long> inFlightSince = new ArrayList<>();
+    private int next;
+    private int processed;
+    private int failed;
     private int lastNotification = 0;
     private long lastNotifcationTime = 0;
-    private int genned = 0;
-    private Boolean keepingLoaded;
+    private long startTime;
+    private int startProcessed;
+    private int baselineLoaded = -1;
+    private boolean cancelled;
 
     public ChunkGenWorker(CommandSource listener, BlockPos start, int total, ServerWorld dim, int interval)
     {
@@ -51,103 +84,250 @@ public class ChunkGenWorker implements IWorker
         this.start = start;
         this.total = total;
         this.dim  = dim;
-        this.queue = buildQueue();
+        this.interval = interval;
         this.notificationFrequency = interval != -1 ? interval : Math.max(total / 20, 100); //Every 5% or every 100, whichever is more.
         this.lastNotifcationTime = System.currentTimeMillis(); //We also notify at least once every 60 seconds, to show we haven't froze.
+        this.startTime = System.nanoTime();
+        this.progress = dim.getSavedData().getOrCreate(Progress::new, Progress.ID);
+        if (progress.worker != null)
+            progress.worker.cancel();
+        progress.worker = this;
+        progress.set(this);
     }
 
-    protected Queue<BlockPos> buildQueue()
+    /**
+     * Resume the generation tasks that were still running when the worlds of the server were last saved.
+     */
+    public static void resumeAll(MinecraftServer server)
     {
-        Queue<BlockPos> ret = new ArrayDeque<BlockPos>();
-        ret.add(start);
-
-        //This *should* spiral outwards, starting on right side, down, left, up, right, but hey we'll see!
-        int radius = 1;
-        while (ret.size() < total)
+        for (ServerWorld world : server.getWorlds())
         {
-            for (int q = -radius + 1; q <= radius && ret.size() < total; q++)
-                ret.add(start.add(radius, 0, q));
-
-            for (int q = radius - 1; q >= -radius && ret.size() < total; q--)
-                ret.add(start.add(q, 0, radius));
+            final Progress progress = world.getSavedData().get(Progress::new, Progress.ID);
+            if (progress == null || !progress.active || progress.worker != null)
+                continue;
+            final int next = progress.next;
+            final int processed = progress.processed;
+            final ChunkGenWorker worker = new ChunkGenWorker(server.getCommandSource(), new BlockPos(progress.x, 0, progress.z), progress.total, world, progress.interval);
+            worker.next = Math.min(next, worker.total);
+            worker.processed = worker.startProcessed = processed;
+            worker.failed = progress.failed;
+            worker.listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.resume", worker.total, worker.start.getX(), worker.start.getZ(), world.getDimensionKey().getLocation(), worker.next), true);
+            WorldWorkerManager.addWorker(worker);
+        }
+    }
 
-            for (int q = radius - 1; q >= -radius && ret.size() < total; q--)
-                ret.add(start.add(-radius, 0, q));
+    /**
+     * Cancel the generation task running in the world, if any.
+     *
+     * @return true if a task was cancelled
+     */
+    public static boolean cancel(ServerWorld world)
+    {
+        final Progress progress = world.getSavedData().get(Progress::new, Progress.ID);
+        if (progress == null || !progress.active)
+            return false;
+        if (progress.worker != null)
+            progress.worker.cancel();
+        progress.active = false;
+        progress.markDirty();
+        return true;
+    }
 
-            for (int q = -radius + 1; q <= radius && ret.size() < total; q++)
-                ret.add(start.add(q, 0, -radius));
+    private void cancel()
+    {
+        cancelled = true;
+        releaseAll();
+        if (progress.worker == this)
+            progress.worker = null;
+    }
 
-            radius++;
+    /**
+     * @return the position of the chunk at the given index of the spiral; the start, then rings around it
+     * starting on the right side, down, left, up, right
+     */
+    protected ChunkPos getPosition(int index)
+    {
+        if (index == 0)
+            return new ChunkPos(start.getX(), start.getZ());
+        int radius = (int)((Math.sqrt(index) + 1) / 2);
+        while ((2 * radius + 1) * (2 * radius + 1) <= index) radius++;
+        while ((2 * radius - 1) * (2 * radius - 1) > index) radius--;
+        final int side = 2 * radius;
+        final int offset = index - (side - 1) * (side - 1);
+        final int q = offset % side;
+        switch (offset / side)
+        {
+            case 0:  return new ChunkPos(start.getX() + radius, start.getZ() - radius + 1 + q);
+            case 1:  return new ChunkPos(start.getX() + radius - 1 - q, start.getZ() + radius);
+            case 2:  return new ChunkPos(start.getX() - radius, start.getZ() + radius - 1 - q);
+            default: return new ChunkPos(start.getX() - radius + 1 + q, start.getZ() - radius);
         }
-        return ret;
     }
 
     public TextComponent getStartMessage(CommandSource sender)
     {
-        return new TranslationTextComponent("commands.forge.gen.start", total, start.getX(), start.getZ(), dim);
+        return new TranslationTextComponent("commands.forge.gen.start", total, start.getX(), start.getZ(), dim.getDimensionKey().getLocation());
     }
 
     @Override
     public boolean hasWork()
     {
-        return queue.size() > 0;
+        return !cancelled && (next < total || !inFlight.isEmpty());
     }
 
     @Override
     public boolean doWork()
     {
-        /* TODO: Check how many things are pending save, and slow down world gen if to many
-        AnvilChunkLoader loader = dim.getChunkProvider().chunkLoader instanceof AnvilChunkLoader ? (AnvilChunkLoader)world.getChunkProvider().chunkLoader : null;
-        if (loader != null && loader.getPendingSaveCount() > 100)
+        if (cancelled)
+            return false;
+        final ServerChunkProvider provider = dim.getChunkProvider();
+        if (baselineLoaded < 0)
+            baselineLoaded = provider.getLoadedChunksCount();
+
+        // Retire finished chunks, releasing their tickets lets them unload and save
+        final long now = System.nanoTime();
+        for (int i = inFlight.size() - 1; i >= 0; i--)
         {
+            final ChunkPos pos = inFlight.get(i);
+            final boolean done = provider.getChunkNow(pos.x, pos.z) != null;
+            if (done || now - inFlightSince.get(i) > TIMEOUT_NANOS)
+            {
+                provider.releaseTicket(PREGEN, pos, 0, pos);
+                inFlight.remove(i);
+                inFlightIndices.remove(i);
+                inFlightSince.remove(i);
+                if (done)
+                    processed++;
+                else
+                    failed++;
+                lastNotification++;
+            }
+        }
 
-            if (lastNotifcationTime < System.currentTimeMillis() - 10*1000)
+        // Back-pressure: let pending saves and unloads catch up before requesting more
+        if (provider.getLoadedChunksCount() - baselineLoaded < MAX_EXTRA_LOADED)
+        {
+            while (inFlight.size() < WINDOW && next < total)
             {
-                listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.progress", total - queue.size(), total), true);
-                lastNotifcationTime = System.currentTimeMillis();
+                final ChunkPos pos = getPosition(next);
+                provider.registerTicket(PREGEN, pos, 0, pos);
+                inFlight.add(pos);
+                inFlightIndices.add(next++);
+                inFlightSince.add(now);
             }
-            return false;
         }
-        */
+        progress.update(this);
 
-        BlockPos next = queue.poll();
+        if (lastNotification >= notificationFrequency || lastNotifcationTime < System.currentTimeMillis() - 60*1000)
+        {
+            final Runtime runtime = Runtime.getRuntime();
+            final double seconds = (System.nanoTime() - startTime) / 1.0E9D;
+            final String rate = String.format("%.1f", seconds > 0 ? (processed - startProcessed) / seconds : 0);
+            listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.progress.rate", processed, total, rate, inFlight.size(),
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20, runtime.maxMemory() >> 20), true);
+            lastNotification = 0;
+            lastNotifcationTime = System.currentTimeMillis();
+        }
 
-        if (next != null)
+        if (next >= total && inFlight.isEmpty())
         {
-            // While we work we don't want to cause world load spam so pause unloading the world.
-            /* TODO: Readd if/when we introduce world unloading, or get Mojang to do it.
-            if (keepingLoaded == null)
-                keepingLoaded = DimensionManager.keepLoaded(dim, true);
-            */
+            listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.complete", processed, total, dim.getDimensionKey().getLocation(), failed), true);
+            progress.active = false;
+            progress.worker = null;
+            progress.markDirty();
+        }
+        // Chunks finish between ticks, so there is nothing more to do until the next one
+        return false;
+    }
 
-            if (++lastNotification >= notificationFrequency || lastNotifcationTime < System.currentTimeMillis() - 60*1000)
-            {
-                listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.progress", total - queue.size(), total), true);
-                lastNotification = 0;
-                lastNotifcationTime = System.currentTimeMillis();
-            }
+    private void releaseAll()
+    {
+        final ServerChunkProvider provider = dim.getChunkProvider();
+        for (ChunkPos pos : inFlight)
+            provider.releaseTicket(PREGEN, pos, 0, pos);
+        inFlight.clear();
+        inFlightIndices.clear();
+        inFlightSince.clear();
+    }
 
-            int x = next.getX();
-            int z = next.getZ();
+    /**
+     * @return the first index of the spiral which has not been generated yet
+     */
+    private int getResumeIndex()
+    {
+        int ret = next;
+        for (int index : inFlightIndices)
+            ret = Math.min(ret, index);
+        return ret;
+    }
+
+    public static class Progress extends WorldSavedData
+    {
+        public static final String ID = "forge_pregen";
+
+        @Nullable
+        private ChunkGenWorker worker;
+        private boolean active;
+        private int x;
+        private int z;
+        private int total;
+        private int interval;
+        private int next;
+        private int processed;
+        private int failed;
 
-            if (!dim.chunkExists(x, z)) { //Chunk is unloaded
-                IChunk chunk = dim.getChunk(x, z, ChunkStatus.EMPTY, true);
-                if (!chunk.getStatus().isAtLeast(ChunkStatus.FULL)) {
-                    chunk = dim.getChunk(x, z, ChunkStatus.FULL);
-                    genned++; //There isn't a way to check if the chunk is actually created just if it was loaded
-                }
+        public Progress()
+        {
+            super(ID);
+        }
+
+        private void set(ChunkGenWorker worker)
+        {
+            this.active = true;
+            this.x = worker.start.getX();
+            this.z = worker.start.getZ();
+            this.total = worker.total;
+            this.interval = worker.interval;
+            update(worker);
+        }
+
+        private void update(ChunkGenWorker worker)
+        {
+            final int next = worker.getResumeIndex();
+            if (this.next != next || this.processed != worker.processed || this.failed != worker.failed)
+            {
+                this.next = next;
+                this.processed = worker.processed;
+                this.failed = worker.failed;
+                markDirty();
             }
         }
 
-        if (queue.size() == 0)
+        @Override
+        public void read(CompoundNBT nbt)
         {
-            listener.sendFeedback(new TranslationTextComponent("commands.forge.gen.complete", genned, total, dim.getDimensionKey().getLocation()), true);
-            /* TODO: Readd if/when we introduce world unloading, or get Mojang to do it.
-            if (keepingLoaded != null && !keepingLoaded)
-                DimensionManager.keepLoaded(dim, false);
-            */
-            return false;
+            this.active = nbt.getBoolean("active");
+            this.x = nbt.getInt("x");
+            this.z = nbt.getInt("z");
+            this.total = nbt.getInt("total");
+            this.interval = nbt.getInt("interval");
+            this.next = nbt.getInt("next");
+            this.processed = nbt.getInt("processed");
+            this.failed = nbt.getInt("failed");
+        }
+
+        @Override
+        public CompoundNBT write(CompoundNBT nbt)
+        {
+            nbt.putBoolean("active", active);
+            nbt.putInt("x", x);
+            nbt.putInt("z", z);
+            nbt.putInt("total", total);
+            nbt.putInt("interval", interval);
+            nbt.putInt("next", next);
+            nbt.putInt("processed", processed);
+            nbt.putInt("failed", failed);
+            return nbt;
         }
-        return true;
     }
 }
@@ -0,0 +1,73 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.command;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraftforge.fml.EventListenerTimings;
+
+import java.util.List;
+
+class CommandEvents
+{
+    private static final int DEFAULT_COUNT = 10;
+
+    static ArgumentBuilder<CommandSource, ?> register()
+    {
+        return Commands.literal("events")
+            .requires(cs->cs.hasPermissionLevel(2)) //permission
+            .then(Commands.literal("reset")
+                .executes(ctx -> {
+                    EventListenerTimings.reset();
+                    ctx.getSource().sendFeedback(new TranslationTextComponent("commands.forge.events.reset"), true);
+                    return 0;
+                })
+            )
+            .then(Commands.argument("count", IntegerArgumentType.integer(1))
+                .executes(ctx -> execute(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "count")))
+            )
+            .executes(ctx -> execute(ctx.getSource(), DEFAULT_COUNT));
+    }
+
+    private static int execute(CommandSource source, int count)
+    {
+        if (!EventListenerTimings.ENABLED)
+        {
+            source.sendErrorMessage(new TranslationTextComponent("commands.forge.events.disabled"));
+            return 0;
+        }
+        final List<EventListenerTimings.Entry> timings = EventListenerTimings.getTimings();
+        if (timings.isEmpty())
+        {
+            source.sendFeedback(new TranslationTextComponent("commands.forge.tracking.no_data"), true);
+            return 0;
+        }
+        for (EventListenerTimings.Entry entry : timings.subList(0, Math.min(count, timings.size())))
+        {
+            source.sendFeedback(new TranslationTextComponent("commands.forge.events.entry", entry.getModId(), entry.getListener(),
+                entry.getEventType().getSimpleName(), entry.getCount(), CommandTrack.formatNanos(entry.getTotalNanos()),
+                CommandTrack.formatNanos(entry.getMeanNanos())), false);
+        }
+        return timings.size();
+    }
+}
@@ -29,6 +29,7 @@ import net.minecraft.command.Commands;
 import net.minecraft.command.arguments.BlockPosArgument;
 import net.minecraft.command.arguments.DimensionArgument;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TranslationTextComponent;
 import net.minecraft.world.server.ServerWorld;
 import net.minecraftforge.common.WorldWorkerManager;
 
@@ -38,6 +39,12 @@ class CommandGenerate
     {
         return Commands.literal("generate")
             .requires(cs->cs.hasPermissionLevel(4)) //permission
+            .then(Commands.literal("cancel")
+                .then(Commands.argument("dim", DimensionArgument.getDimension())
+                    .executes(ctx -> cancel(ctx.getSource(), DimensionArgument.getDimensionArgument(ctx, "dim")))
+                )
+                .executes(ctx -> cancel(ctx.getSource(), ctx.getSource().getWorld()))
+            )
             .then(Commands.argument("pos", BlockPosArgument.blockPos())
                 .then(Commands.argument("count", IntegerArgumentType.integer(1))
                     .then(Commands.argument("dim", DimensionArgument.getDimension())
@@ -56,6 +63,17 @@ class CommandGenerate
         return IntegerArgumentType.getInteger(ctx, name);
     }
 
+    private static int cancel(CommandSource source, ServerWorld dim)
+    {
+        if (!ChunkGenWorker.cancel(dim))
+        {
+            source.sendErrorMessage(new TranslationTextComponent("commands.forge.gen.cancel.none", dim.getDimensionKey().getLocation()));
+            return 0;
+        }
+        source.sendFeedback(new TranslationTextComponent("commands.forge.gen.cancel", dim.getDimensionKey().getLocation()), true);
+        return 1;
+    }
+
     private static int execute(CommandSource source, BlockPos pos, int count, ServerWorld dim, int interval) throws CommandException
     {
         BlockPos chunkpos = new BlockPos(pos.getX() >> 4, 0, pos.getZ() >> 4);
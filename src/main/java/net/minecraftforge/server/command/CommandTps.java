@@ -20,6 +20,7 @@
 package net.minecraftforge.server.command;
 
 import java.text.DecimalFormat;
+import java.util.Map;
 import com.mojang.brigadier.builder.ArgumentBuilder;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.command.CommandSource;
@@ -29,6 +30,8 @@ import net.minecraft.util.registry.Registry;
 import net.minecraft.util.text.TranslationTextComponent;
 import net.minecraft.world.DimensionType;
 import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.server.timings.TickPhase;
+import net.minecraftforge.server.timings.TickPhaseTracker;
 
 class CommandTps
 {
@@ -39,6 +42,17 @@ class CommandTps
     {
         return Commands.literal("tps")
             .requires(cs->cs.hasPermissionLevel(0)) //permission
+            .then(Commands.literal("phases")
+                .then(Commands.argument("dim", DimensionArgument.getDimension())
+                    .executes(ctx -> sendPhases(ctx.getSource(), DimensionArgument.getDimensionArgument(ctx, "dim")))
+                )
+                .executes(ctx -> {
+                    for (ServerWorld dim : ctx.getSource().getServer().getWorlds())
+                        sendPhases(ctx.getSource(), dim);
+                    ctx.getSource().sendFeedback(new TranslationTextComponent("commands.forge.tps.network", TIME_FORMATTER.format(TickPhaseTracker.getMeanNetworkTime() * 1.0E-6D)), false);
+                    return 0;
+                })
+            )
             .then(Commands.argument("dim", DimensionArgument.getDimension())
                 .executes(ctx -> sendTime(ctx.getSource(), DimensionArgument.getDimensionArgument(ctx, "dim")))
             )
@@ -71,6 +85,23 @@ class CommandTps
         return 1;
     }
 
+    private static int sendPhases(CommandSource cs, ServerWorld dim)
+    {
+        cs.sendFeedback(new TranslationTextComponent("commands.forge.tps.phases", dim.getDimensionKey().getLocation().toString(),
+                formatPhase(dim, TickPhase.ENTITIES), formatPhase(dim, TickPhase.TILE_ENTITIES),
+                formatPhase(dim, TickPhase.BLOCK_TICKS), formatPhase(dim, TickPhase.CHUNK_SOURCE),
+                formatPhase(dim, TickPhase.TICK_EVENTS), formatPhase(dim, TickPhase.OTHER)), false);
+        TickPhaseTracker.getMeanTickEventTimeByMod(dim.getDimensionKey()).entrySet().stream()
+            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+            .forEach(e -> cs.sendFeedback(new TranslationTextComponent("commands.forge.tps.phases.mod", e.getKey(), TIME_FORMATTER.format(e.getValue() * 1.0E-6D)), false));
+        return 1;
+    }
+
+    private static String formatPhase(ServerWorld dim, TickPhase phase)
+    {
+        return TIME_FORMATTER.format(TickPhaseTracker.getMeanPhaseTime(dim.getDimensionKey(), phase) * 1.0E-6D);
+    }
+
     private static long mean(long[] values)
     {
         long sum = 0L;
@@ -21,11 +21,19 @@ package net.minecraftforge.server.command;
 
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.builder.ArgumentBuilder;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 import net.minecraft.command.CommandException;
@@ -33,11 +41,18 @@ import net.minecraft.command.CommandSource;
 import net.minecraft.command.Commands;
 import net.minecraft.entity.Entity;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.RegistryKey;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.loading.FMLPaths;
 import net.minecraftforge.server.timings.ForgeTimings;
 import net.minecraftforge.server.timings.TimeTracker;
+import net.minecraftforge.server.timings.TimingHistogram;
+import net.minecraftforge.server.timings.TimingsExporter;
+import org.apache.commons.lang3.tuple.Pair;
 
 class CommandTrack
 {
@@ -50,9 +65,16 @@ class CommandTrack
             .then(ResetTrackingCommand.register())
             .then(TrackResultsEntity.register())
             .then(TrackResultsTileEntity.register())
+            .then(TrackResultsAggregated.register())
+            .then(ExportTrackingCommand.register())
             .then(StartTrackingCommand.register());
     }
 
+    static String formatNanos(double nanos)
+    {
+        return nanos >= 1_000_000 ? TIME_FORMAT.format(nanos / 1_000_000) + "ms" : TIME_FORMAT.format(nanos / 1000) + "\u03bcs";
+    }
+
     private static class StartTrackingCommand
     {
         static ArgumentBuilder<CommandSource, ?> register()
@@ -154,8 +176,7 @@ class CommandTrack
                         return new TranslationTextComponent("commands.forge.tracking.invalid");
 
                     BlockPos pos = entity.getPosition();
-                    double averageTimings = data.getAverageTimings();
-                    String tickTime = (averageTimings > 1000 ? TIME_FORMAT.format(averageTimings / 1000) : TIME_FORMAT.format(averageTimings)) + (averageTimings < 1000 ? "\u03bcs" : "ms");
+                    String tickTime = formatNanos(data.getAverageTimings());
 
                     return new TranslationTextComponent("commands.forge.tracking.timing_entry", entity.getType().getRegistryName(), entity.world.getDimensionKey().getLocation().toString(), pos.getX(), pos.getY(), pos.getZ(), tickTime);
                 })
@@ -175,11 +196,95 @@ class CommandTrack
 
                     BlockPos pos = te.getPos();
 
-                    double averageTimings = data.getAverageTimings();
-                    String tickTime = (averageTimings > 1000 ? TIME_FORMAT.format(averageTimings / 1000) : TIME_FORMAT.format(averageTimings)) + (averageTimings < 1000 ? "\u03bcs" : "ms");
+                    String tickTime = formatNanos(data.getAverageTimings());
                     return new TranslationTextComponent("commands.forge.tracking.timing_entry", te.getType().getRegistryName(), te.getWorld().getDimensionKey().getLocation().toString(), pos.getX(), pos.getY(), pos.getZ(), tickTime);
                 })
             );
         }
     }
+
+    private static class TrackResultsAggregated
+    {
+        static ArgumentBuilder<CommandSource, ?> register()
+        {
+            return Commands.literal("summary")
+                .then(register("types", TimeTracker::getTypeTimings, Object::toString))
+                .then(register("mods", TimeTracker::getModTimings, Function.identity()))
+                .then(register("chunks", TimeTracker::getChunkTimings, TrackResultsAggregated::describeChunk));
+        }
+
+        private static <K> ArgumentBuilder<CommandSource, ?> register(String name, Function<TimeTracker<?>, Map<K, TimingHistogram>> getter, Function<K, String> toString)
+        {
+            return Commands.literal(name)
+                .then(Commands.literal("te").executes(ctx -> execute(ctx.getSource(), getter.apply(TimeTracker.TILE_ENTITY_UPDATE), toString)))
+                .then(Commands.literal("entity").executes(ctx -> execute(ctx.getSource(), getter.apply(TimeTracker.ENTITY_UPDATE), toString)));
+        }
+
+        private static String describeChunk(Pair<RegistryKey<World>, ChunkPos> chunk)
+        {
+            return chunk.getLeft().getLocation() + " " + chunk.getRight();
+        }
+
+        /**
+         * Sends the ten entries with the highest total time
+         */
+        private static <K> int execute(CommandSource source, Map<K, TimingHistogram> timings, Function<K, String> toString)
+        {
+            if (timings.isEmpty())
+            {
+                source.sendFeedback(new TranslationTextComponent("commands.forge.tracking.no_data"), true);
+                return 0;
+            }
+            timings.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<K, TimingHistogram> e) -> e.getValue().getTotalNanos()).reversed())
+                .limit(10)
+                .forEach(e -> {
+                    TimingHistogram data = e.getValue();
+                    source.sendFeedback(new TranslationTextComponent("commands.forge.tracking.summary_entry", toString.apply(e.getKey()), data.getCount(),
+                            formatNanos(data.getTotalNanos()), formatNanos(data.getMeanNanos()), formatNanos(data.getPercentileNanos(50)),
+                            formatNanos(data.getPercentileNanos(99)), formatNanos(data.getMaxNanos())), true);
+                });
+            return 0;
+        }
+    }
+
+    private static class ExportTrackingCommand
+    {
+        static ArgumentBuilder<CommandSource, ?> register()
+        {
+            return Commands.literal("export")
+                .requires(cs->cs.hasPermissionLevel(2)) //permission
+                .then(Commands.literal("te").executes(ctx -> execute(ctx.getSource(), "te", TimeTracker.TILE_ENTITY_UPDATE)))
+                .then(Commands.literal("entity").executes(ctx -> execute(ctx.getSource(), "entity", TimeTracker.ENTITY_UPDATE)));
+        }
+
+        /**
+         * Writes the timings as JSON, and as folded stacks for flame graphs, to the debug folder
+         */
+        private static int execute(CommandSource source, String name, TimeTracker<?> tracker)
+        {
+            String fileName = "track-" + name + "-" + new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date());
+            Path dir = FMLPaths.GAMEDIR.get().resolve("debug");
+            Path json = dir.resolve(fileName + ".json");
+            try
+            {
+                Files.createDirectories(dir);
+                try (Writer out = Files.newBufferedWriter(json, StandardCharsets.UTF_8))
+                {
+                    TimingsExporter.writeJson(tracker, out);
+                }
+                try (Writer out = Files.newBufferedWriter(dir.resolve(fileName + ".folded"), StandardCharsets.UTF_8))
+                {
+                    TimingsExporter.writeFolded(name, tracker, out);
+                }
+            }
+            catch (IOException e)
+            {
+                source.sendErrorMessage(new TranslationTextComponent("commands.forge.tracking.export.failed", e.getMessage()));
+                return 0;
+            }
+            source.sendFeedback(new TranslationTextComponent("commands.forge.tracking.export.success", json.toAbsolutePath().toString()), true);
+            return 1;
+        }
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.command;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraftforge.common.WorldWorkerManager;
+
+import java.util.List;
+
+class CommandWorkers
+{
+    static ArgumentBuilder<CommandSource, ?> register()
+    {
+        return Commands.literal("workers")
+            .requires(cs->cs.hasPermissionLevel(2)) //permission
+            .executes(ctx -> {
+                final CommandSource source = ctx.getSource();
+                final List<WorldWorkerManager.WorkerStats> stats = WorldWorkerManager.getStats();
+                if (stats.isEmpty())
+                {
+                    source.sendFeedback(new TranslationTextComponent("commands.forge.workers.none"), false);
+                    return 0;
+                }
+                source.sendFeedback(new TranslationTextComponent("commands.forge.workers.summary",
+                    CommandTrack.formatNanos(WorldWorkerManager.getLastBudgetNanos()), CommandTrack.formatNanos(WorldWorkerManager.getAverageTickNanos())), false);
+                for (WorldWorkerManager.WorkerStats worker : stats)
+                {
+                    final String budget = worker.getBudgetNanos() > 0 ? CommandTrack.formatNanos(worker.getBudgetNanos()) : "-";
+                    source.sendFeedback(new TranslationTextComponent(worker.isThreadSafe() ? "commands.forge.workers.entry.off_thread" : "commands.forge.workers.entry",
+                        worker.getName(), worker.getPriority(), budget, worker.getCalls(), CommandTrack.formatNanos(worker.getTotalNanos()),
+                        CommandTrack.formatNanos(worker.getLastTickNanos())), false);
+                }
+                return stats.size();
+            });
+    }
+}
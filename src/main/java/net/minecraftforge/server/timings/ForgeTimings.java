@@ -20,7 +20,6 @@
 package net.minecraftforge.server.timings;
 
 import java.lang.ref.WeakReference;
-import java.util.Arrays;
 
 /**
  * ForgeTimings aggregates timings data collected by {@link TimeTracker} for an Object
@@ -33,12 +32,27 @@ public class ForgeTimings<T>
 
     private WeakReference<T> object;
 
-    private int[] rawTimingData;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
 
     public ForgeTimings(T object, int[] rawTimingData)
     {
         this.object = new WeakReference<T>(object);
-        this.rawTimingData = rawTimingData;
+        this.count = rawTimingData.length;
+        for (int data : rawTimingData)
+        {
+            this.totalNanos += data;
+            this.maxNanos = Math.max(this.maxNanos, data);
+        }
+    }
+
+    public ForgeTimings(T object, long count, long totalNanos, long maxNanos)
+    {
+        this.object = new WeakReference<T>(object);
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
     }
 
     /**
@@ -59,13 +73,30 @@ public class ForgeTimings<T>
      */
     public double getAverageTimings()
     {
-        double sum = 0.0;
+        return count == 0 ? 0.0 : totalNanos / (double)count;
+    }
 
-        for (int data : rawTimingData)
-        {
-            sum += data;
-        }
+    /**
+     * @return The number of updates recorded
+     */
+    public long getCount()
+    {
+        return count;
+    }
 
-        return sum / rawTimingData.length;
+    /**
+     * @return The total time spent in all recorded updates, in nanoseconds
+     */
+    public long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    /**
+     * @return The longest recorded update, in nanoseconds
+     */
+    public long getMaxNanos()
+    {
+        return maxNanos;
     }
 }
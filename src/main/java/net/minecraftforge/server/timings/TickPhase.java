@@ -0,0 +1,52 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.timings;
+
+/**
+ * The parts of a server world tick measured by {@link TickPhaseTracker}
+ */
+public enum TickPhase
+{
+    /**
+     * Updating entities, including their passengers
+     */
+    ENTITIES,
+    /**
+     * Updating ticking tile entities
+     */
+    TILE_ENTITIES,
+    /**
+     * Running the scheduled block and fluid ticks
+     */
+    BLOCK_TICKS,
+    /**
+     * Ticking the chunk source: chunk loading, unloading and generation on the server thread,
+     * along with the random ticks, weather and mob spawning it runs for each loaded chunk
+     */
+    CHUNK_SOURCE,
+    /**
+     * Listeners of the {@link net.minecraftforge.event.TickEvent.WorldTickEvent}, both phases
+     */
+    TICK_EVENTS,
+    /**
+     * Everything else in the world tick, such as sleeping, raids and block events
+     */
+    OTHER;
+}
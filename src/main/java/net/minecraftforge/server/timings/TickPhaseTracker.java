@@ -0,0 +1,204 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.minecraftforge.server.timings;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.util.RegistryKey;
+import net.minecraft.world.World;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.fml.EventListenerTimings;
+
+/**
+ * Breaks the tick time of each server world down into {@link TickPhase phases}.
+ *
+ * Like {@link net.minecraft.server.MinecraftServer#getTickTime(RegistryKey)} the last 100 ticks are kept per world,
+ * so monitoring mods can poll {@link #getPhaseTimes(RegistryKey, TickPhase)} at any rate.
+ * Worlds tick one at a time on the server thread, so only the world currently ticking holds any state.
+ * The time spent flushing network connections is not part of any world tick and is kept per server tick instead,
+ * see {@link #getNetworkTimes()}.
+ */
+public class TickPhaseTracker
+{
+    private static final int TICKS = 100;
+    private static final int MAX_DEPTH = 8;
+    private static final TickPhase[] PHASES = TickPhase.values();
+    private static final Map<RegistryKey<World>, long[][]> TIMES = new ConcurrentHashMap<>();
+    private static final Map<RegistryKey<World>, Map<String, long[]>> MOD_TIMES = new ConcurrentHashMap<>();
+    private static final long[] NETWORK = new long[TICKS];
+
+    private static World ticking;
+    private static long tickStart;
+    private static final long[] current = new long[PHASES.length];
+    private static final TickPhase[] phases = new TickPhase[MAX_DEPTH];
+    private static int depth;
+    private static long phaseStart;
+    private static final Map<String, Long> currentMods = new HashMap<>();
+    private static Map<String, Long> modsAtStart;
+    private static int networkTick;
+    private static long networkStart;
+
+    /**
+     * Returns the time spent in a phase over the last 100 ticks of a world, in nanoseconds
+     *
+     * @return The times indexed by tick count modulo 100, or null if the world has not ticked yet
+     */
+    @Nullable
+    public static long[] getPhaseTimes(RegistryKey<World> dim, TickPhase phase)
+    {
+        long[][] times = TIMES.get(dim);
+        return times == null ? null : times[phase.ordinal()];
+    }
+
+    /**
+     * Returns the mean time spent in a phase over the last 100 ticks of a world, in nanoseconds
+     */
+    public static double getMeanPhaseTime(RegistryKey<World> dim, TickPhase phase)
+    {
+        return mean(getPhaseTimes(dim, phase));
+    }
+
+    /**
+     * Returns the mean time each mod spent in {@link TickEvent.WorldTickEvent} listeners over the last 100 ticks of a world, in nanoseconds.
+     * Only listeners timed by {@link EventListenerTimings} are covered, so this is empty unless that is enabled.
+     */
+    public static Map<String, Double> getMeanTickEventTimeByMod(RegistryKey<World> dim)
+    {
+        Map<String, long[]> times = MOD_TIMES.get(dim);
+        if (times == null)
+            return Collections.emptyMap();
+        Map<String, Double> ret = new HashMap<>();
+        times.forEach((mod, modTimes) -> ret.put(mod, mean(modTimes)));
+        return ret;
+    }
+
+    /**
+     * Returns the time spent flushing network connections over the last 100 server ticks, in nanoseconds
+     */
+    public static long[] getNetworkTimes()
+    {
+        return NETWORK;
+    }
+
+    public static double getMeanNetworkTime()
+    {
+        return mean(NETWORK);
+    }
+
+    private static double mean(@Nullable long[] times)
+    {
+        if (times == null)
+            return 0;
+        long sum = 0L;
+        for (long time : times)
+            sum += time;
+        return sum / (double)times.length;
+    }
+
+    public static void startWorldTick(World world)
+    {
+        ticking = world;
+        depth = 0;
+        tickStart = System.nanoTime();
+    }
+
+    public static void endWorldTick(World world)
+    {
+        if (ticking != world)
+            return;
+        long total = System.nanoTime() - tickStart;
+        long[][] times = TIMES.computeIfAbsent(world.getDimensionKey(), k -> new long[PHASES.length][TICKS]);
+        int slot = (int)(world.getGameTime() % TICKS);
+        long other = total;
+        for (TickPhase p : PHASES)
+        {
+            if (p != TickPhase.OTHER)
+            {
+                times[p.ordinal()][slot] = current[p.ordinal()];
+                other -= current[p.ordinal()];
+            }
+            current[p.ordinal()] = 0;
+        }
+        times[TickPhase.OTHER.ordinal()][slot] = Math.max(0, other);
+        if (EventListenerTimings.ENABLED)
+        {
+            Map<String, long[]> modTimes = MOD_TIMES.computeIfAbsent(world.getDimensionKey(), k -> new ConcurrentHashMap<>());
+            modTimes.forEach((mod, t) -> t[slot] = 0);
+            currentMods.forEach((mod, time) -> modTimes.computeIfAbsent(mod, k -> new long[TICKS])[slot] = time);
+            currentMods.clear();
+        }
+        ticking = null;
+    }
+
+    /**
+     * Starts timing a phase of the world's tick, calls for worlds which are not ticking on the server are ignored.
+     * Phases nest: time spent in a phase started while another one is running only counts towards the inner phase.
+     */
+    public static void startPhase(World world, TickPhase phase)
+    {
+        if (ticking != world)
+            return;
+        long now = System.nanoTime();
+        if (depth > 0)
+            current[phases[Math.min(depth, MAX_DEPTH) - 1].ordinal()] += now - phaseStart;
+        if (depth < MAX_DEPTH)
+            phases[depth] = phase;
+        depth++;
+        if (phase == TickPhase.TICK_EVENTS && EventListenerTimings.ENABLED)
+            modsAtStart = EventListenerTimings.getTotalNanosByMod(TickEvent.WorldTickEvent.class);
+        phaseStart = System.nanoTime();
+    }
+
+    public static void endPhase(World world)
+    {
+        if (ticking != world || depth == 0)
+            return;
+        long now = System.nanoTime();
+        TickPhase phase = phases[Math.min(depth, MAX_DEPTH) - 1];
+        current[phase.ordinal()] += now - phaseStart;
+        depth--;
+        if (phase == TickPhase.TICK_EVENTS && modsAtStart != null)
+        {
+            Map<String, Long> before = modsAtStart;
+            EventListenerTimings.getTotalNanosByMod(TickEvent.WorldTickEvent.class).forEach((mod, time) -> {
+                long spent = time - before.getOrDefault(mod, 0L);
+                if (spent > 0)
+                    currentMods.merge(mod, spent, Long::sum);
+            });
+            modsAtStart = null;
+        }
+        phaseStart = System.nanoTime();
+    }
+
+    public static void startNetworkTick()
+    {
+        networkStart = System.nanoTime();
+    }
+
+    public static void endNetworkTick()
+    {
+        NETWORK[networkTick] = System.nanoTime() - networkStart;
+        networkTick = (networkTick + 1) % TICKS;
+    }
+}
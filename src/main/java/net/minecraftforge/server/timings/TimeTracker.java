@@ -19,20 +19,38 @@
 
 package net.minecraftforge.server.timings;
 
-import java.lang.ref.WeakReference;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import javax.annotation.Nullable;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.MapMaker;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.entity.Entity;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraftforge.registries.IForgeRegistryEntry;
+import org.apache.commons.lang3.tuple.Pair;
 
 /**
  * A class to assist in the collection of data to measure the update times of ticking objects {currently Tile Entities and Entities}
  *
+ * Besides the totals per object, every update is aggregated into a {@link TimingHistogram} per type and per chunk,
+ * from which per mod figures are derived. Recording an update does not allocate once its object, type and chunk have been seen,
+ * so tracking can be left enabled on busy servers.
+ *
  * @param <T>
  */
 public class TimeTracker<T>
@@ -41,19 +59,51 @@ public class TimeTracker<T>
     /**
      * A tracker for timing tile entity update
      */
-    public static final TimeTracker<TileEntity> TILE_ENTITY_UPDATE = new TimeTracker<>();
+    public static final TimeTracker<TileEntity> TILE_ENTITY_UPDATE = new TimeTracker<>(TileEntity::getType,
+            te -> te.getWorld() == null ? null : te.getWorld().getDimensionKey(),
+            te -> ChunkPos.asLong(te.getPos().getX() >> 4, te.getPos().getZ() >> 4));
     /**
      * A tracker for timing entity updates
      */
-    public static final TimeTracker<Entity> ENTITY_UPDATE = new TimeTracker<>();
+    public static final TimeTracker<Entity> ENTITY_UPDATE = new TimeTracker<>(Entity::getType,
+            entity -> entity.world.getDimensionKey(),
+            entity -> ChunkPos.asLong(MathHelper.floor(entity.getPosX()) >> 4, MathHelper.floor(entity.getPosZ()) >> 4));
+
+    private final Function<T, ? extends IForgeRegistryEntry<?>> typeOf;
+    private final Function<T, RegistryKey<World>> worldOf;
+    private final ToLongFunction<T> chunkOf;
 
     private boolean enabled;
-    private int trackingDuration;
-    private Map<T, int[]> timings = new MapMaker().weakKeys().makeMap();
-    private WeakReference<T> currentlyTracking;
+    private long trackingDuration;
+    private final Map<T, ObjectTimings> timings = new MapMaker().weakKeys().makeMap();
+    private final Map<IForgeRegistryEntry<?>, TimingHistogram> typeTimings = new IdentityHashMap<>();
+    private final Map<RegistryKey<World>, Long2ObjectOpenHashMap<TimingHistogram>> chunkTimings = new IdentityHashMap<>();
+    private T currentlyTracking;
     private long trackTime;
     private long timing;
 
+    /**
+     * Creates a tracker which only records timings per object
+     */
+    public TimeTracker()
+    {
+        this(null, null, null);
+    }
+
+    /**
+     * Creates a tracker which also aggregates timings per type and per chunk
+     *
+     * @param typeOf The registered type of a tracked object, used for per type and per mod timings
+     * @param worldOf The world of a tracked object, or null if it has none
+     * @param chunkOf The {@link ChunkPos#asLong(int, int) packed} chunk position of a tracked object
+     */
+    public TimeTracker(@Nullable Function<T, ? extends IForgeRegistryEntry<?>> typeOf, @Nullable Function<T, RegistryKey<World>> worldOf, @Nullable ToLongFunction<T> chunkOf)
+    {
+        this.typeOf = typeOf;
+        this.worldOf = worldOf;
+        this.chunkOf = chunkOf;
+    }
+
     /**
      * Returns the timings data recorded by the tracker
      *
@@ -63,9 +113,56 @@ public class TimeTracker<T>
     {
         ImmutableList.Builder<ForgeTimings<T>> builder = ImmutableList.builder();
 
-        for (Map.Entry<T, int[]> entry : timings.entrySet())
+        for (Map.Entry<T, ObjectTimings> entry : timings.entrySet())
         {
-            builder.add(new ForgeTimings<>(entry.getKey(), Arrays.copyOfRange(entry.getValue(), 0, 99)));
+            ObjectTimings data = entry.getValue();
+            builder.add(new ForgeTimings<>(entry.getKey(), data.count, data.totalNanos, data.maxNanos));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a copy of the timings recorded per type, keyed by the registry name of the type
+     */
+    public ImmutableMap<ResourceLocation, TimingHistogram> getTypeTimings()
+    {
+        ImmutableMap.Builder<ResourceLocation, TimingHistogram> builder = ImmutableMap.builder();
+        for (Map.Entry<IForgeRegistryEntry<?>, TimingHistogram> entry : typeTimings.entrySet())
+        {
+            ResourceLocation name = entry.getKey().getRegistryName();
+            if (name != null)
+                builder.put(name, copy(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the timings recorded per type, merged by the mod that registered the type
+     */
+    public ImmutableMap<String, TimingHistogram> getModTimings()
+    {
+        Map<String, TimingHistogram> mods = new HashMap<>();
+        for (Map.Entry<IForgeRegistryEntry<?>, TimingHistogram> entry : typeTimings.entrySet())
+        {
+            ResourceLocation name = entry.getKey().getRegistryName();
+            if (name != null)
+                mods.computeIfAbsent(name.getNamespace(), k -> new TimingHistogram()).merge(entry.getValue());
+        }
+        return ImmutableMap.copyOf(mods);
+    }
+
+    /**
+     * Returns a copy of the timings recorded per chunk
+     */
+    public ImmutableMap<Pair<RegistryKey<World>, ChunkPos>, TimingHistogram> getChunkTimings()
+    {
+        ImmutableMap.Builder<Pair<RegistryKey<World>, ChunkPos>, TimingHistogram> builder = ImmutableMap.builder();
+        for (Map.Entry<RegistryKey<World>, Long2ObjectOpenHashMap<TimingHistogram>> world : chunkTimings.entrySet())
+        {
+            for (Long2ObjectMap.Entry<TimingHistogram> chunk : world.getValue().long2ObjectEntrySet())
+            {
+                builder.put(Pair.of(world.getKey(), new ChunkPos(chunk.getLongKey())), copy(chunk.getValue()));
+            }
         }
         return builder.build();
     }
@@ -77,7 +174,10 @@ public class TimeTracker<T>
     {
         enabled = false;
         trackTime = 0;
+        currentlyTracking = null;
         timings.clear();
+        typeTimings.clear();
+        chunkTimings.clear();
     }
 
     /**
@@ -99,7 +199,7 @@ public class TimeTracker<T>
      */
     public void enable(int duration)
     {
-        this.trackingDuration = duration;
+        this.trackingDuration = TimeUnit.NANOSECONDS.convert(duration, TimeUnit.SECONDS);
         this.enabled = true;
     }
 
@@ -117,14 +217,45 @@ public class TimeTracker<T>
 
     private void trackEnd(T object, long nanoTime)
     {
-        if (currentlyTracking == null || currentlyTracking.get() != object)
+        if (currentlyTracking != object)
         {
             currentlyTracking = null;
             return;
         }
-        int[] timings = this.timings.computeIfAbsent(object, k -> new int[101]);
-        int idx = timings[100] = (timings[100] + 1) % 100;
-        timings[idx] = (int) (nanoTime - timing);
+        currentlyTracking = null;
+        long elapsed = nanoTime - timing;
+
+        ObjectTimings data = timings.get(object);
+        if (data == null)
+        {
+            data = new ObjectTimings();
+            timings.put(object, data);
+        }
+        data.record(elapsed);
+
+        if (typeOf != null)
+        {
+            IForgeRegistryEntry<?> type = typeOf.apply(object);
+            if (type != null)
+                typeTimings.computeIfAbsent(type, k -> new TimingHistogram()).record(elapsed);
+        }
+
+        if (worldOf != null && chunkOf != null)
+        {
+            RegistryKey<World> world = worldOf.apply(object);
+            if (world != null)
+            {
+                Long2ObjectOpenHashMap<TimingHistogram> chunks = chunkTimings.computeIfAbsent(world, k -> new Long2ObjectOpenHashMap<>());
+                long chunk = chunkOf.applyAsLong(object);
+                TimingHistogram histogram = chunks.get(chunk);
+                if (histogram == null)
+                {
+                    histogram = new TimingHistogram();
+                    chunks.put(chunk, histogram);
+                }
+                histogram.record(elapsed);
+            }
+        }
     }
 
     private void trackStart(T toTrack, long nanoTime)
@@ -133,13 +264,37 @@ public class TimeTracker<T>
         {
             trackTime = nanoTime;
         }
-        else if (trackTime + TimeUnit.NANOSECONDS.convert(trackingDuration, TimeUnit.SECONDS) < nanoTime)
+        else if (trackTime + trackingDuration < nanoTime)
         {
             enabled = false;
             trackTime = 0;
+            currentlyTracking = null;
+            return;
         }
 
-        currentlyTracking = new WeakReference<>(toTrack);
+        currentlyTracking = toTrack;
         timing = nanoTime;
     }
+
+    private static TimingHistogram copy(TimingHistogram histogram)
+    {
+        TimingHistogram ret = new TimingHistogram();
+        ret.merge(histogram);
+        return ret;
+    }
+
+    private static class ObjectTimings
+    {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        private void record(long nanos)
+        {
+            count++;
+            totalNanos += nanos;
+            if (nanos > maxNanos)
+                maxNanos = nanos;
+        }
+    }
 }
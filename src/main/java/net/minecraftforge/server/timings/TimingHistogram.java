@@ -0,0 +1,121 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.timings;
+
+/**
+ * A fixed size, log-linear histogram of durations in nanoseconds.
+ *
+ * Each power of two is split into {@link #SUB_BUCKETS} buckets, so recorded values are
+ * reported with an error of at most 1/{@link #SUB_BUCKETS} of their magnitude.
+ * Recording never allocates.
+ */
+public class TimingHistogram
+{
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final int[] counts = new int[BUCKETS];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public void record(long nanos)
+    {
+        if (nanos < 0)
+            nanos = 0;
+        counts[bucket(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos)
+            maxNanos = nanos;
+    }
+
+    /**
+     * Adds all values recorded by another histogram to this one
+     */
+    public void merge(TimingHistogram other)
+    {
+        for (int i = 0; i < BUCKETS; i++)
+            counts[i] += other.counts[i];
+        count += other.count;
+        totalNanos += other.totalNanos;
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    public long getMaxNanos()
+    {
+        return maxNanos;
+    }
+
+    public double getMeanNanos()
+    {
+        return count == 0 ? 0 : totalNanos / (double)count;
+    }
+
+    /**
+     * @param percentile The percentile to compute, between 0 and 100
+     * @return The upper bound of the bucket containing the percentile, capped at the maximum recorded value
+     */
+    public long getPercentileNanos(double percentile)
+    {
+        if (count == 0)
+            return 0;
+        long target = Math.max(1, (long)Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += counts[i];
+            if (seen >= target)
+                return Math.min(upperBound(i), maxNanos);
+        }
+        return maxNanos;
+    }
+
+    private static int bucket(long nanos)
+    {
+        if (nanos < SUB_BUCKETS)
+            return (int)nanos;
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos); // >= SUB_BUCKET_BITS
+        int mantissa = (int)(nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | mantissa;
+    }
+
+    private static long upperBound(int bucket)
+    {
+        int shift = bucket >>> SUB_BUCKET_BITS;
+        long mantissa = bucket & (SUB_BUCKETS - 1);
+        if (shift == 0)
+            return mantissa;
+        int exponent = shift + SUB_BUCKET_BITS - 1;
+        long lower = (1L << exponent) | (mantissa << (exponent - SUB_BUCKET_BITS));
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
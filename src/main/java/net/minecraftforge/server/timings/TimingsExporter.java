@@ -0,0 +1,111 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.timings;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import com.google.gson.stream.JsonWriter;
+
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Writes the data collected by a {@link TimeTracker} in formats external tools can consume.
+ */
+public class TimingsExporter
+{
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    /**
+     * Writes the per type, per mod and per chunk timings as a JSON document.
+     * All times are in nanoseconds.
+     */
+    public static void writeJson(TimeTracker<?> tracker, Writer out) throws IOException
+    {
+        JsonWriter json = new JsonWriter(out);
+        json.setIndent("  ");
+        json.beginObject();
+
+        json.name("types").beginArray();
+        for (Map.Entry<ResourceLocation, TimingHistogram> entry : tracker.getTypeTimings().entrySet())
+        {
+            json.beginObject();
+            json.name("type").value(entry.getKey().toString());
+            json.name("mod").value(entry.getKey().getNamespace());
+            writeHistogram(json, entry.getValue());
+            json.endObject();
+        }
+        json.endArray();
+
+        json.name("mods").beginArray();
+        for (Map.Entry<String, TimingHistogram> entry : tracker.getModTimings().entrySet())
+        {
+            json.beginObject();
+            json.name("mod").value(entry.getKey());
+            writeHistogram(json, entry.getValue());
+            json.endObject();
+        }
+        json.endArray();
+
+        json.name("chunks").beginArray();
+        for (Map.Entry<Pair<RegistryKey<World>, ChunkPos>, TimingHistogram> entry : tracker.getChunkTimings().entrySet())
+        {
+            json.beginObject();
+            json.name("dimension").value(entry.getKey().getLeft().getLocation().toString());
+            json.name("x").value(entry.getKey().getRight().x);
+            json.name("z").value(entry.getKey().getRight().z);
+            writeHistogram(json, entry.getValue());
+            json.endObject();
+        }
+        json.endArray();
+
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * Writes the per type timings as folded stacks of {@code root;mod;type}, weighted by total time in microseconds.
+     * This is the input format of flame graph tools.
+     */
+    public static void writeFolded(String root, TimeTracker<?> tracker, Writer out) throws IOException
+    {
+        for (Map.Entry<ResourceLocation, TimingHistogram> entry : tracker.getTypeTimings().entrySet())
+        {
+            ResourceLocation type = entry.getKey();
+            out.write(root + ";" + type.getNamespace() + ";" + type.getPath() + " " + entry.getValue().getTotalNanos() / 1000 + "\n");
+        }
+        out.flush();
+    }
+
+    private static void writeHistogram(JsonWriter json, TimingHistogram histogram) throws IOException
+    {
+        json.name("count").value(histogram.getCount());
+        json.name("total").value(histogram.getTotalNanos());
+        json.name("mean").value(histogram.getMeanNanos());
+        for (double percentile : PERCENTILES)
+            json.name("p" + (int)percentile).value(histogram.getPercentileNanos(percentile));
+        json.name("max").value(histogram.getMaxNanos());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug;
+
+import net.minecraft.command.CommandSource;
+import net.minecraft.util.text.StringTextComponent;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The timing loop shared by the benchmark test mods, which are run from in-game commands as the build has no JMH setup.
+ *
+ * Benchmarks {@link #check} that the code they measure gives the same results as the path it replaced before
+ * reporting any timings, so a fast but wrong implementation never looks like an improvement.
+ */
+public final class Benchmark
+{
+    public static final int ITERATIONS = 1_000_000;
+
+    private Benchmark() {}
+
+    /**
+     * Compare the results of both paths for the first {@code samples} inputs.
+     *
+     * @throws IllegalStateException naming the first input the paths disagree on
+     */
+    public static <T> void check(String name, int samples, IntFunction<T> expected, IntFunction<T> actual)
+    {
+        for (int i = 0; i < samples; i++)
+        {
+            final T want = expected.apply(i);
+            final T got = actual.apply(i);
+            if (!Objects.equals(want, got))
+                throw new IllegalStateException(String.format("%s returned %s instead of %s for input %d", name, got, want, i));
+        }
+    }
+
+    /**
+     * Time {@link #ITERATIONS} calls of the operation after a tenth as many to warm up, and print the cost per call.
+     *
+     * @param unit what a single call does, e.g. "lookup"
+     * @param op called with the iteration number, its results are summed so they can't be optimized away
+     */
+    public static Result report(CommandSource source, String name, String unit, IntUnaryOperator op)
+    {
+        return report(source, name, unit, ITERATIONS, op);
+    }
+
+    /**
+     * Like {@link #report(CommandSource, String, String, IntUnaryOperator)}, for operations too heavy to run
+     * {@link #ITERATIONS} times.
+     */
+    public static Result report(CommandSource source, String name, String unit, int iterations, IntUnaryOperator op)
+    {
+        final Result result = run(iterations, op);
+        source.sendFeedback(new StringTextComponent(result.format(name, unit)), false);
+        return result;
+    }
+
+    public static Result run(int iterations, IntUnaryOperator op)
+    {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        long sink = 0;
+        for (int i = 0; i < iterations / 10; i++) // Warm up
+            sink += op.applyAsInt(i);
+        long total = 0;
+        final long startBytes = threads.getThreadAllocatedBytes(thread);
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+            total += op.applyAsInt(i);
+        final long elapsed = System.nanoTime() - start;
+        final long allocated = threads.getThreadAllocatedBytes(thread) - startBytes;
+        if (sink == Long.MIN_VALUE) // Keep the results alive
+            throw new IllegalStateException();
+        return new Result(iterations, elapsed, allocated, total);
+    }
+
+    public static final class Result
+    {
+        public final int iterations;
+        public final long nanos;
+        public final long allocatedBytes;
+        /** The sum of the results of the timed calls */
+        public final long total;
+
+        private Result(int iterations, long nanos, long allocatedBytes, long total)
+        {
+            this.iterations = iterations;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+            this.total = total;
+        }
+
+        public String format(String name, String unit)
+        {
+            return format(name, unit, iterations);
+        }
+
+        /**
+         * @param count the number of units the timed calls processed, for operations doing a varying amount of work each
+         */
+        public String format(String name, String unit, long count)
+        {
+            return String.format("%s: %.1f ns/%s, %.1f bytes/%s", name, nanos / (double)count, unit, allocatedBytes / (double)count, unit);
+        }
+    }
+}
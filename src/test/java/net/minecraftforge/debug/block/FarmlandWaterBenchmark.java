@@ -0,0 +1,106 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug.block;
+
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.FarmlandWaterManager;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.ticket.AABBTicket;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks {@link FarmlandWaterManager#hasBlockWaterTicket} against a plain scan of the same tickets, which is how
+ * the lookup used to work.
+ *
+ * Run {@code /farmland_water_benchmark} as a player to fill the current chunk with small sprinkler-like tickets, check
+ * that both find the same water and print the cost per lookup of both. The tickets are invalidated again afterwards.
+ */
+@Mod(FarmlandWaterBenchmark.MODID)
+public class FarmlandWaterBenchmark
+{
+    public static final String MODID = "farmland_water_benchmark";
+    private static final int TICKETS = 256;
+
+    public FarmlandWaterBenchmark()
+    {
+        MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+
+    private void registerCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(MODID).requires(cs -> cs.hasPermissionLevel(2)).executes(ctx -> {
+            final CommandSource source = ctx.getSource();
+            final ServerWorld world = source.getWorld();
+            final BlockPos origin = source.asPlayer().getPosition();
+            final int baseX = origin.getX() & ~15;
+            final int baseZ = origin.getZ() & ~15;
+            final int y = origin.getY();
+            final List<AABBTicket> tickets = new ArrayList<>(TICKETS);
+            for (int i = 0; i < TICKETS; i++)
+            {
+                // 3x1x3 boxes spread over the chunk and a few layers, each watering the layer below it
+                final int x = baseX + (i * 7) % 16;
+                final int z = baseZ + (i * 11) % 16;
+                final int layer = y + (i % 8) * 4;
+                tickets.add(FarmlandWaterManager.addAABBTicket(world, new AxisAlignedBB(x - 1, layer - 1, z - 1, x + 2, layer, z + 2)));
+            }
+            try
+            {
+                final BlockPos.Mutable pos = new BlockPos.Mutable();
+                // Every position of the walk
+                Benchmark.check("hasBlockWaterTicket", 16 * 16 * 32, i -> scan(tickets, walk(pos, baseX, y, baseZ, i)), i -> FarmlandWaterManager.hasBlockWaterTicket(world, walk(pos, baseX, y, baseZ, i)));
+                Benchmark.report(source, "index over " + TICKETS + " tickets", "lookup", i -> FarmlandWaterManager.hasBlockWaterTicket(world, walk(pos, baseX, y, baseZ, i)) ? 1 : 0);
+                Benchmark.report(source, "scan over " + TICKETS + " tickets", "lookup", i -> scan(tickets, walk(pos, baseX, y, baseZ, i)) ? 1 : 0);
+            }
+            finally
+            {
+                tickets.forEach(AABBTicket::invalidate);
+            }
+            return 0;
+        }));
+    }
+
+    // Walks the whole chunk over the covered layers, so both hits and misses are measured
+    private static BlockPos walk(BlockPos.Mutable pos, int baseX, int y, int baseZ, int i)
+    {
+        return pos.setPos(baseX + (i & 15), y - 1 + ((i >> 8) & 31), baseZ + ((i >> 4) & 15));
+    }
+
+    private static boolean scan(List<AABBTicket> tickets, BlockPos pos)
+    {
+        final Vector3d posAsVec3d = new Vector3d(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+        for (AABBTicket ticket : tickets)
+        {
+            if (ticket.matches(posAsVec3d))
+                return true;
+        }
+        return false;
+    }
+}
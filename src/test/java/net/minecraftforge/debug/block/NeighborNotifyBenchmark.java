@@ -0,0 +1,135 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug.block;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.RedstoneWireBlock;
+import net.minecraft.block.RepeaterBlock;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.StringTextComponent;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.event.EventListenerQuery;
+import net.minecraftforge.event.ForgeEventFactory;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.world.BlockEvent.NeighborNotifyEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Benchmarks the neighbor notification hook fired by every redstone or fluid update, against the way it used to be
+ * fired with a freshly allocated {@link EnumSet} and an unconditionally posted event.
+ *
+ * Run {@code /neighbor_notify_benchmark} as a player standing in an open area. A redstone clock is built next to the
+ * player: a redstone block is placed and removed over and over at the start of a line of redstone dust, which feeds a
+ * repeater and a second line of dust. Every toggle runs the world's real block update and wire propagation, which fire
+ * the hook hundreds of times. The command checks that the wire follows the clock, then prints the cost and allocation
+ * per toggle, along with whether {@link NeighborNotifyEvent} currently has listeners. The blocks are put back
+ * afterwards.
+ *
+ * The cost of the hook alone is printed next to the way it used to be fired, after checking both give the same
+ * outcome, as the old hook can't be swapped into the world's own updates.
+ */
+@Mod(NeighborNotifyBenchmark.MODID)
+public class NeighborNotifyBenchmark
+{
+    public static final String MODID = "neighbor_notify_benchmark";
+    private static final int WIRE_LENGTH = 15;
+    // Each toggle updates a few hundred blocks, so fewer are needed for a stable timing
+    private static final int TOGGLES = Benchmark.ITERATIONS / 100;
+
+    public NeighborNotifyBenchmark()
+    {
+        MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+
+    private void registerCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(MODID).requires(cs -> cs.hasPermissionLevel(2)).executes(ctx -> {
+            final CommandSource source = ctx.getSource();
+            final ServerWorld world = source.getWorld();
+            final BlockPos pos = source.asPlayer().getPosition();
+            source.sendFeedback(new StringTextComponent("NeighborNotifyEvent listeners: " + EventListenerQuery.hasListeners(NeighborNotifyEvent.class)), false);
+
+            Benchmark.check("onNeighborNotify", 1, i -> legacyHook(world, pos), i -> ForgeEventFactory.onNeighborNotify(world, pos, NeighborNotifyEvent.ALL_SIDES, false));
+            Benchmark.report(source, "legacy hook", "notify", i -> legacyHook(world, pos) ? 1 : 0);
+            Benchmark.report(source, "hook", "notify", i -> ForgeEventFactory.onNeighborNotify(world, pos, NeighborNotifyEvent.ALL_SIDES, false) ? 1 : 0);
+
+            final BlockPos clock = pos.east(2);
+            final Map<BlockPos, BlockState> replaced = buildClock(world, clock);
+            try
+            {
+                final BlockPos lastWire = clock.east(WIRE_LENGTH);
+                // Returns the power reaching the end of the first line of dust
+                final IntUnaryOperator toggle = i -> {
+                    world.setBlockState(clock, (i & 1) == 0 ? Blocks.REDSTONE_BLOCK.getDefaultState() : Blocks.AIR.getDefaultState());
+                    return world.getBlockState(lastWire).get(RedstoneWireBlock.POWER);
+                };
+                Benchmark.check("redstone clock", 2, i -> (i & 1) == 0 ? 1 : 0, toggle::applyAsInt);
+                Benchmark.report(source, "redstone clock", "toggle", TOGGLES, toggle);
+            }
+            finally
+            {
+                replaced.forEach((at, state) -> world.setBlockState(at, state, Constants.BlockFlags.BLOCK_UPDATE));
+            }
+            return 0;
+        }));
+    }
+
+    // Lays out the clock eastwards from the given position on a stone floor, returning the blocks it replaced
+    private static Map<BlockPos, BlockState> buildClock(ServerWorld world, BlockPos start)
+    {
+        final Map<BlockPos, BlockState> replaced = new LinkedHashMap<>();
+        final int length = 2 * WIRE_LENGTH + 2;
+        for (int i = 0; i < length; i++)
+        {
+            final BlockPos at = start.east(i);
+            replaced.put(at, world.getBlockState(at));
+            replaced.put(at.down(), world.getBlockState(at.down()));
+            replaced.put(at.up(), world.getBlockState(at.up()));
+            world.setBlockState(at.down(), Blocks.STONE.getDefaultState(), Constants.BlockFlags.BLOCK_UPDATE);
+            world.setBlockState(at.up(), Blocks.AIR.getDefaultState(), Constants.BlockFlags.BLOCK_UPDATE);
+            final BlockState state;
+            if (i == 0)
+                state = Blocks.AIR.getDefaultState();
+            else if (i == WIRE_LENGTH + 1)
+                state = Blocks.REPEATER.getDefaultState().with(RepeaterBlock.HORIZONTAL_FACING, Direction.WEST); // Fed from the west
+            else
+                state = Blocks.REDSTONE_WIRE.getDefaultState();
+            world.setBlockState(at, state);
+        }
+        return replaced;
+    }
+
+    private static boolean legacyHook(ServerWorld world, BlockPos pos)
+    {
+        return ForgeEventFactory.onNeighborNotify(world, pos, world.getBlockState(pos), EnumSet.allOf(Direction.class), false).isCanceled();
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug.client.rendering;
+
+import com.mojang.blaze3d.matrix.MatrixStack;
+import com.mojang.blaze3d.vertex.IVertexBuilder;
+import net.minecraft.block.BlockRenderType;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.model.BakedQuad;
+import net.minecraft.client.renderer.color.BlockColors;
+import net.minecraft.client.renderer.model.IBakedModel;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.StringTextComponent;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientChatEvent;
+import net.minecraftforge.client.model.data.EmptyModelData;
+import net.minecraftforge.client.model.pipeline.VertexBufferConsumer;
+import net.minecraftforge.client.model.pipeline.VertexLighterFlat;
+import net.minecraftforge.client.model.pipeline.VertexLighterSmoothAo;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks the Forge light pipeline on the block models around the player, lighting their quads the way
+ * {@link net.minecraftforge.client.model.pipeline.ForgeBlockModelRenderer} does during chunk rebuilds.
+ *
+ * Type {@code /light_pipeline_benchmark} in chat to check that both lighters light every quad the same when reading
+ * its packed data directly as when it is unpacked element by element, then print the time and the bytes allocated
+ * per quad of each.
+ */
+@Mod(LightPipelineBenchmark.MODID)
+public class LightPipelineBenchmark
+{
+    public static final String MODID = "light_pipeline_benchmark";
+    private static final int RADIUS = 8;
+
+    public LightPipelineBenchmark()
+    {
+        DistExecutor.runWhenOn(Dist.CLIENT, () -> () -> MinecraftForge.EVENT_BUS.addListener(Client::onClientChat));
+    }
+
+    private static class Client
+    {
+        private static void onClientChat(ClientChatEvent event)
+        {
+            if (!event.getMessage().equals("/" + MODID))
+                return;
+            event.setCanceled(true);
+
+            final Minecraft mc = Minecraft.getInstance();
+            if (mc.world == null || mc.player == null)
+                return;
+            final List<BlockPos> positions = new ArrayList<>();
+            final List<BlockState> states = new ArrayList<>();
+            final List<List<BakedQuad>> quads = new ArrayList<>();
+            final Random rand = new Random();
+            final BlockPos center = mc.player.getPosition();
+            for (BlockPos pos : BlockPos.getAllInBoxMutable(center.add(-RADIUS, -RADIUS, -RADIUS), center.add(RADIUS, RADIUS, RADIUS)))
+            {
+                final BlockState state = mc.world.getBlockState(pos);
+                if (state.getRenderType() != BlockRenderType.MODEL)
+                    continue;
+                final IBakedModel model = mc.getBlockRendererDispatcher().getBlockModelShapes().getModel(state);
+                final List<BakedQuad> blockQuads = new ArrayList<>();
+                rand.setSeed(42);
+                blockQuads.addAll(model.getQuads(state, null, rand, EmptyModelData.INSTANCE));
+                for (Direction side : Direction.values())
+                {
+                    rand.setSeed(42);
+                    blockQuads.addAll(model.getQuads(state, side, rand, EmptyModelData.INSTANCE));
+                }
+                if (blockQuads.isEmpty())
+                    continue;
+                positions.add(pos.toImmutable());
+                states.add(state);
+                quads.add(blockQuads);
+            }
+            if (quads.isEmpty())
+            {
+                mc.player.sendStatusMessage(new StringTextComponent("No block models around the player"), false);
+                return;
+            }
+
+            final BlockColors colors = mc.getBlockColors();
+            final Lit flat = new Lit(new VertexLighterFlat(colors), mc.world, positions, states, quads);
+            final Lit smooth = new Lit(new VertexLighterSmoothAo(colors), mc.world, positions, states, quads);
+            // Lighters overriding put are given every element unpacked, the way all quads used to be lit
+            final Lit flatUnpacked = new Lit(new VertexLighterFlat(colors)
+            {
+                @Override
+                public void put(int element, float... data)
+                {
+                    super.put(element, data);
+                }
+            }, mc.world, positions, states, quads);
+            final Lit smoothUnpacked = new Lit(new VertexLighterSmoothAo(colors)
+            {
+                @Override
+                public void put(int element, float... data)
+                {
+                    super.put(element, data);
+                }
+            }, mc.world, positions, states, quads);
+            Benchmark.check("flat", quads.size(), flatUnpacked::sum, flat::sum);
+            Benchmark.check("smooth", quads.size(), smoothUnpacked::sum, smooth::sum);
+
+            report(mc, "flat", flat);
+            report(mc, "flat unpacked", flatUnpacked);
+            report(mc, "smooth", smooth);
+            report(mc, "smooth unpacked", smoothUnpacked);
+        }
+
+        private static void report(Minecraft mc, String name, Lit lit)
+        {
+            // Each call lights a single block model, the results are reported per quad
+            final Benchmark.Result result = Benchmark.run(Benchmark.ITERATIONS, lit::light);
+            mc.player.sendStatusMessage(new StringTextComponent(result.format(name, "quad", result.total) + " over " + lit.quads.size() + " block models"), false);
+        }
+    }
+
+    // Lights the block models around the player in turn
+    private static class Lit
+    {
+        private final VertexLighterFlat lighter;
+        private final Sink sink = new Sink();
+        private final ClientWorld world;
+        private final List<BlockPos> positions;
+        private final List<BlockState> states;
+        private final List<List<BakedQuad>> quads;
+
+        private Lit(VertexLighterFlat lighter, ClientWorld world, List<BlockPos> positions, List<BlockState> states, List<List<BakedQuad>> quads)
+        {
+            this.lighter = lighter;
+            this.world = world;
+            this.positions = positions;
+            this.states = states;
+            this.quads = quads;
+            lighter.setParent(new VertexBufferConsumer(sink));
+            lighter.setTransform(new MatrixStack().getLast());
+        }
+
+        // Returns the number of quads lit
+        private int light(int i)
+        {
+            final int model = i % quads.size();
+            lighter.setWorld(world);
+            lighter.setState(states.get(model));
+            lighter.setBlockPos(positions.get(model));
+            lighter.updateBlockInfo();
+            for (BakedQuad quad : quads.get(model))
+                quad.pipe(lighter);
+            lighter.resetBlockInfo();
+            return quads.get(model).size();
+        }
+
+        // Sums up what the block model was lit as, to compare it
+        private double sum(int i)
+        {
+            sink.value = 0;
+            light(i);
+            return sink.value;
+        }
+    }
+
+    // Consumes the lit vertices without storing them
+    private static class Sink implements IVertexBuilder
+    {
+        private double value;
+
+        @Override
+        public IVertexBuilder pos(double x, double y, double z)
+        {
+            value += x + y + z;
+            return this;
+        }
+
+        @Override
+        public IVertexBuilder color(int red, int green, int blue, int alpha)
+        {
+            value += red + green + blue + alpha;
+            return this;
+        }
+
+        @Override
+        public IVertexBuilder tex(float u, float v)
+        {
+            value += u + v;
+            return this;
+        }
+
+        @Override
+        public IVertexBuilder overlay(int u, int v)
+        {
+            return this;
+        }
+
+        @Override
+        public IVertexBuilder lightmap(int u, int v)
+        {
+            value += u + v;
+            return this;
+        }
+
+        @Override
+        public IVertexBuilder normal(float x, float y, float z)
+        {
+            value += x + y + z;
+            return this;
+        }
+
+        @Override
+        public void endVertex()
+        {
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug.entity;
+
+import net.minecraft.block.Blocks;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.SpawnReason;
+import net.minecraft.entity.monster.ZombieEntity;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.util.DamageSource;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.ForgeHooks;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.event.EventListenerQuery;
+import net.minecraftforge.event.ForgeEventFactory;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.entity.living.LivingEvent;
+import net.minecraftforge.event.entity.living.LivingHurtEvent;
+import net.minecraftforge.event.entity.living.LivingSpawnEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Benchmarks the most frequently fired entity hooks, which skip creating their event when nothing listens to it.
+ *
+ * Run {@code /entity_hook_benchmark} as a player to check that each hook returns what posting its event would, then
+ * print the cost per call of the hook and of always posting the event, along with whether the event currently has
+ * listeners and so is actually posted.
+ */
+@Mod(EntityHookBenchmark.MODID)
+public class EntityHookBenchmark
+{
+    public static final String MODID = "entity_hook_benchmark";
+
+    public EntityHookBenchmark()
+    {
+        MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+
+    private void registerCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(MODID).requires(cs -> cs.hasPermissionLevel(2)).executes(ctx -> {
+            final CommandSource source = ctx.getSource();
+            final ServerPlayerEntity player = source.asPlayer();
+            // Never added to the world, it only serves as the subject of the hooks
+            final ZombieEntity zombie = EntityType.ZOMBIE.create(player.world);
+            final BlockPos pos = player.getPosition();
+            report(source, "onLivingUpdate", LivingEvent.LivingUpdateEvent.class,
+                i -> ForgeHooks.onLivingUpdate(zombie) ? 1 : 0,
+                i -> MinecraftForge.EVENT_BUS.post(new LivingEvent.LivingUpdateEvent(zombie)) ? 1 : 0);
+            report(source, "onLivingHurt", LivingHurtEvent.class,
+                i -> (int)ForgeHooks.onLivingHurt(zombie, DamageSource.GENERIC, 1.0F),
+                i -> {
+                    final LivingHurtEvent hurt = new LivingHurtEvent(zombie, DamageSource.GENERIC, 1.0F);
+                    return MinecraftForge.EVENT_BUS.post(hurt) ? 0 : (int)hurt.getAmount();
+                });
+            report(source, "getBreakSpeed", PlayerEvent.BreakSpeed.class,
+                i -> (int)ForgeEventFactory.getBreakSpeed(player, Blocks.STONE.getDefaultState(), 1.0F, pos),
+                i -> {
+                    final PlayerEvent.BreakSpeed speed = new PlayerEvent.BreakSpeed(player, Blocks.STONE.getDefaultState(), 1.0F, pos);
+                    return MinecraftForge.EVENT_BUS.post(speed) ? -1 : (int)speed.getNewSpeed();
+                });
+            report(source, "canEntitySpawn", LivingSpawnEvent.CheckSpawn.class,
+                i -> ForgeEventFactory.canEntitySpawn(zombie, player.world, pos.getX(), pos.getY(), pos.getZ(), null, SpawnReason.NATURAL).ordinal(),
+                i -> {
+                    final LivingSpawnEvent.CheckSpawn spawn = new LivingSpawnEvent.CheckSpawn(zombie, player.world, pos.getX(), pos.getY(), pos.getZ(), null, SpawnReason.NATURAL);
+                    MinecraftForge.EVENT_BUS.post(spawn);
+                    return spawn.getResult().ordinal();
+                });
+            return 0;
+        }));
+    }
+
+    private static void report(CommandSource source, String name, Class<? extends Event> event, IntUnaryOperator hook, IntUnaryOperator post)
+    {
+        Benchmark.check(name, 1, post::applyAsInt, hook::applyAsInt);
+        final String listeners = " (listeners: " + EventListenerQuery.hasListeners(event) + ")";
+        Benchmark.report(source, name + listeners, "call", hook);
+        Benchmark.report(source, name + " posted" + listeners, "call", post);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug.entity;
+
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.monster.GiantEntity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.world.OversizedEntityIndex;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Benchmarks entity queries while an entity too large for their search margin is present, against the way such
+ * entities used to be found by widening every query of the world to their size.
+ *
+ * Run {@code /oversized_entity_benchmark} as a player to print the cost per query of a mob sized search around the
+ * player, before and after a giant is added a few chunks away. With the giant present, the query is first checked to
+ * find the same entities as the widened one, both with the giant in range and out of it. The giant is removed again
+ * afterwards.
+ */
+@Mod(OversizedEntityBenchmark.MODID)
+public class OversizedEntityBenchmark
+{
+    public static final String MODID = "oversized_entity_benchmark";
+
+    public OversizedEntityBenchmark()
+    {
+        MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+
+    private void registerCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(MODID).requires(cs -> cs.hasPermissionLevel(2)).executes(ctx -> {
+            final CommandSource source = ctx.getSource();
+            final ServerWorld world = source.getWorld();
+            final Entity player = source.asPlayer();
+            final AxisAlignedBB box = player.getBoundingBox().grow(8.0D);
+            Benchmark.report(source, "query", "query", i -> world.getEntitiesWithinAABB(Entity.class, box, null).size());
+
+            final GiantEntity giant = EntityType.GIANT.create(world);
+            giant.setNoAI(true);
+            giant.setPosition(player.getPosX() + 48.0D, player.getPosY(), player.getPosZ());
+            world.addEntity(giant);
+            try
+            {
+                // What the world used to widen all queries by to find the giant
+                final double radius = Math.max(giant.getWidth() / 2.0D, giant.getHeight());
+                final AxisAlignedBB[] boxes = { box, box.offset(48.0D, 0.0D, 0.0D) };
+                Benchmark.check("getEntitiesWithinAABB", boxes.length,
+                    i -> new HashSet<>(legacyQuery(world, boxes[i], radius)),
+                    i -> new HashSet<>(world.getEntitiesWithinAABB(Entity.class, boxes[i], null)));
+                final String name = " with giant (oversized entities: " + world.getOversizedEntities().size() + ")";
+                Benchmark.report(source, "query" + name, "query", i -> world.getEntitiesWithinAABB(Entity.class, box, null).size());
+                Benchmark.report(source, "legacy query" + name, "query", i -> legacyQuery(world, box, radius).size());
+            }
+            finally
+            {
+                giant.remove();
+            }
+            return 0;
+        }));
+    }
+
+    private static List<Entity> legacyQuery(ServerWorld world, AxisAlignedBB box, double radius)
+    {
+        final double grow = radius - OversizedEntityIndex.SEARCH_MARGIN;
+        return world.getEntitiesWithinAABB(Entity.class, box.grow(grow), e -> e.getBoundingBox().intersects(box));
+    }
+}
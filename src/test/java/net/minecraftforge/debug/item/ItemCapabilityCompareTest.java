@@ -0,0 +1,158 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug.item;
+
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemGroup;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.IntNBT;
+import net.minecraft.util.Direction;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.capabilities.ICapabilitySerializable;
+import net.minecraftforge.common.capabilities.IComparableCapabilityProvider;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.fml.RegistryObject;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.registries.DeferredRegister;
+import net.minecraftforge.registries.ForgeRegistries;
+
+import javax.annotation.Nullable;
+
+/**
+ * Benchmarks ItemStack capability comparison, as done on every stack merge.
+ *
+ * Both items carry the same number of serializable capabilities, but only the
+ * comparable item's providers implement {@link IComparableCapabilityProvider}.
+ * Run {@code /item_capability_compare_test} to check that both agree with comparing the serialized stacks, then print
+ * the cost per comparison of each.
+ */
+@Mod(ItemCapabilityCompareTest.MODID)
+public class ItemCapabilityCompareTest
+{
+    public static final String MODID = "item_capability_compare_test";
+    private static final int CAPS_PER_STACK = 4;
+
+    private static final DeferredRegister<Item> ITEMS = DeferredRegister.create(ForgeRegistries.ITEMS, MODID);
+    private static final RegistryObject<Item> SERIALIZED = ITEMS.register("serialized", () -> new Item(new Item.Properties().group(ItemGroup.MISC)));
+    private static final RegistryObject<Item> COMPARABLE = ITEMS.register("comparable", () -> new Item(new Item.Properties().group(ItemGroup.MISC)));
+
+    public ItemCapabilityCompareTest()
+    {
+        ITEMS.register(FMLJavaModLoadingContext.get().getModEventBus());
+        MinecraftForge.EVENT_BUS.addGenericListener(ItemStack.class, this::attachCapabilities);
+        MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+
+    private void attachCapabilities(AttachCapabilitiesEvent<ItemStack> event)
+    {
+        final Item item = event.getObject().getItem();
+        for (int i = 0; i < CAPS_PER_STACK; i++)
+        {
+            if (item == SERIALIZED.get())
+                event.addCapability(new ResourceLocation(MODID, "counter_" + i), new Counter(i));
+            else if (item == COMPARABLE.get())
+                event.addCapability(new ResourceLocation(MODID, "counter_" + i), new ComparableCounter(i));
+        }
+    }
+
+    private void registerCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(MODID).requires(cs -> cs.hasPermissionLevel(2)).executes(ctx -> {
+            final CommandSource source = ctx.getSource();
+            check("Serialized", SERIALIZED.get());
+            check("Comparable", COMPARABLE.get());
+            benchmark(source, "Serialized", SERIALIZED.get());
+            benchmark(source, "Comparable", COMPARABLE.get());
+            return 0;
+        }));
+    }
+
+    // Compare against an identical stack and one with a different capability value, like the serialized stacks would
+    private static void check(String name, Item item)
+    {
+        final ItemStack stack = new ItemStack(item);
+        final CompoundNBT changed = stack.write(new CompoundNBT());
+        changed.getCompound("ForgeCaps").putInt(MODID + ":counter_0", -1);
+        final ItemStack[] others = { new ItemStack(item), ItemStack.read(changed) };
+        Benchmark.check(name, others.length,
+            i -> stack.write(new CompoundNBT()).equals(others[i].write(new CompoundNBT())),
+            i -> ItemHandlerHelper.canItemStacksStack(stack, others[i]));
+    }
+
+    private static void benchmark(CommandSource source, String name, Item item)
+    {
+        final ItemStack a = new ItemStack(item);
+        final ItemStack b = new ItemStack(item);
+        Benchmark.report(source, name, "compare", i -> ItemHandlerHelper.canItemStacksStack(a, b) ? 1 : 0);
+    }
+
+    private static class Counter implements ICapabilitySerializable<IntNBT>
+    {
+        protected int value;
+
+        private Counter(int value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public <T> LazyOptional<T> getCapability(Capability<T> cap, @Nullable Direction side)
+        {
+            return LazyOptional.empty();
+        }
+
+        @Override
+        public IntNBT serializeNBT()
+        {
+            return IntNBT.valueOf(value);
+        }
+
+        @Override
+        public void deserializeNBT(IntNBT nbt)
+        {
+            this.value = nbt.getInt();
+        }
+    }
+
+    private static class ComparableCounter extends Counter implements IComparableCapabilityProvider
+    {
+        private ComparableCounter(int value)
+        {
+            super(value);
+        }
+
+        @Override
+        public boolean isCompatible(ICapabilityProvider other)
+        {
+            return other instanceof ComparableCounter && ((ComparableCounter)other).value == this.value;
+        }
+    }
+}
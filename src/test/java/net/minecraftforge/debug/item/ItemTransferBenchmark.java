@@ -0,0 +1,121 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug.item;
+
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
+
+/**
+ * Benchmarks {@link ItemHandlerHelper#transferItems} against moving the same items slot by slot with a simulated and
+ * an executed extraction and insertion, as handlers are commonly emptied into each other.
+ *
+ * Run {@code /item_transfer_benchmark} to check that both move the same items, then print the time and the bytes
+ * allocated per transfer of both.
+ */
+@Mod(ItemTransferBenchmark.MODID)
+public class ItemTransferBenchmark
+{
+    public static final String MODID = "item_transfer_benchmark";
+    private static final int SLOTS = 27;
+    private static final int ITEMS_PER_TRANSFER = 96;
+
+    public ItemTransferBenchmark()
+    {
+        MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+
+    private void registerCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(MODID).requires(cs -> cs.hasPermissionLevel(2)).executes(ctx -> {
+            final CommandSource source = ctx.getSource();
+            final Transfer bulk = (from, to) -> ItemHandlerHelper.transferItems(from, to, stack -> true, ITEMS_PER_TRANSFER);
+            final Transfer slotBySlot = (from, to) -> slotBySlot(from, to, ITEMS_PER_TRANSFER);
+            final IItemHandler[] expected = handlers();
+            final IItemHandler[] actual = handlers();
+            Benchmark.check("transferItems", 1000, i -> moveAndCount(slotBySlot, expected, i), i -> moveAndCount(bulk, actual, i));
+            report(source, "transferItems", bulk);
+            report(source, "slot by slot", slotBySlot);
+            return 0;
+        }));
+    }
+
+    private interface Transfer
+    {
+        int move(IItemHandler from, IItemHandler to);
+    }
+
+    private static int slotBySlot(IItemHandler source, IItemHandler dest, int maxItems)
+    {
+        int moved = 0;
+        for (int slot = 0; slot < source.getSlots() && moved < maxItems; slot++)
+        {
+            ItemStack extracted = source.extractItem(slot, maxItems - moved, true);
+            if (extracted.isEmpty())
+                continue;
+            int accepted = extracted.getCount() - ItemHandlerHelper.insertItemStacked(dest, extracted, true).getCount();
+            if (accepted <= 0)
+                continue;
+            extracted = source.extractItem(slot, accepted, false);
+            ItemHandlerHelper.insertItemStacked(dest, extracted, false);
+            moved += accepted;
+        }
+        return moved;
+    }
+
+    // Both handlers are filled half way, and items move back and forth between them
+    private static IItemHandler[] handlers()
+    {
+        final IItemHandler[] handlers = new IItemHandler[2];
+        for (int i = 0; i < handlers.length; i++)
+        {
+            final ItemStackHandler handler = new ItemStackHandler(SLOTS);
+            for (int slot = 0; slot < SLOTS / 2; slot++)
+                handler.setStackInSlot(slot, new ItemStack(Items.COBBLESTONE, 64));
+            handlers[i] = handler;
+        }
+        return handlers;
+    }
+
+    // The items moved, followed by how many are left in the destination
+    private static String moveAndCount(Transfer transfer, IItemHandler[] handlers, int i)
+    {
+        final IItemHandler to = handlers[~i & 1];
+        final int moved = transfer.move(handlers[i & 1], to);
+        int count = 0;
+        for (int slot = 0; slot < to.getSlots(); slot++)
+            count += to.getStackInSlot(slot).getCount();
+        return moved + "/" + count;
+    }
+
+    private static void report(CommandSource source, String name, Transfer transfer)
+    {
+        final IItemHandler[] handlers = handlers();
+        Benchmark.report(source, name, "transfer", i -> transfer.move(handlers[i & 1], handlers[~i & 1]));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.debug.misc;
+
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.registries.ForgeRegistry;
+import net.minecraftforge.registries.IForgeRegistry;
+import net.minecraftforge.registries.IForgeRegistryEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Benchmarks the id and name lookups of frozen registries, next to the boxed {@link HashBiMap} lookups they replaced.
+ *
+ * Run {@code /registry_lookup_benchmark} to check that both find the same entries, then print the cost per lookup for
+ * the block and item registries.
+ */
+@Mod(RegistryLookupBenchmark.MODID)
+public class RegistryLookupBenchmark
+{
+    public static final String MODID = "registry_lookup_benchmark";
+
+    public RegistryLookupBenchmark()
+    {
+        MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+
+    private void registerCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(MODID).requires(cs -> cs.hasPermissionLevel(2)).executes(ctx -> {
+            run(ctx.getSource(), "blocks", ForgeRegistries.BLOCKS);
+            run(ctx.getSource(), "items", ForgeRegistries.ITEMS);
+            return 0;
+        }));
+    }
+
+    private static <V extends IForgeRegistryEntry<V>> void run(CommandSource source, String name, IForgeRegistry<V> registry)
+    {
+        final ForgeRegistry<V> forgeRegistry = (ForgeRegistry<V>)registry;
+        // The snapshot is taken from the registry's own id map, not the baked lookups being measured
+        final ForgeRegistry.Snapshot snapshot = forgeRegistry.makeSnapshot();
+        final List<V> values = new ArrayList<>();
+        final List<ResourceLocation> names = new ArrayList<>();
+        final BiMap<Integer, V> baseline = HashBiMap.create();
+        snapshot.ids.forEach((key, id) -> {
+            final V value = registry.getValue(key);
+            values.add(value);
+            names.add(key);
+            baseline.put(id, value);
+        });
+        final int size = values.size();
+        final int[] ids = new int[size];
+        for (int i = 0; i < size; i++)
+            ids[i] = baseline.inverse().get(values.get(i));
+        final List<ResourceLocation> aliases = new ArrayList<>(snapshot.aliases.keySet());
+
+        Benchmark.check(name + " getValue(int)", size, i -> baseline.get(ids[i]), i -> forgeRegistry.getValue(ids[i]));
+        Benchmark.check(name + " getID(V)", size, i -> baseline.inverse().get(values.get(i)), i -> forgeRegistry.getID(values.get(i)));
+        Benchmark.check(name + " getValue(alias)", aliases.size(), i -> legacyAlias(forgeRegistry, snapshot.aliases, aliases.get(i)), i -> forgeRegistry.getValue(aliases.get(i)));
+
+        Benchmark.report(source, name + " getValue(int)", "lookup", i -> forgeRegistry.getValue(ids[i % size]).hashCode());
+        Benchmark.report(source, name + " HashBiMap.get", "lookup", i -> baseline.get(ids[i % size]).hashCode());
+        Benchmark.report(source, name + " getID(V)", "lookup", i -> forgeRegistry.getID(values.get(i % size)));
+        Benchmark.report(source, name + " HashBiMap.inverse().get", "lookup", i -> baseline.inverse().get(values.get(i % size)));
+        Benchmark.report(source, name + " getValue(ResourceLocation)", "lookup", i -> forgeRegistry.getValue(names.get(i % size)).hashCode());
+    }
+
+    // How aliases used to be resolved, by following them through the names on every lookup
+    private static <V extends IForgeRegistryEntry<V>> V legacyAlias(ForgeRegistry<V> registry, Map<ResourceLocation, ResourceLocation> aliases, ResourceLocation name)
+    {
+        final Set<ResourceLocation> keys = registry.getKeys();
+        V ret = keys.contains(name) ? registry.getValue(name) : null;
+        ResourceLocation key = aliases.get(name);
+        while (ret == null && key != null)
+        {
+            ret = keys.contains(key) ? registry.getValue(key) : null;
+            key = aliases.get(key);
+        }
+        if (ret == null && registry.getDefaultKey() != null)
+            ret = registry.getValue(registry.getDefaultKey());
+        return ret;
+    }
+}
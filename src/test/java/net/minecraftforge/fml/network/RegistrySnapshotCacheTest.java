@@ -0,0 +1,162 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.registries.ForgeRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.google.common.collect.ImmutableMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistrySnapshotCacheTest
+{
+    private static final ResourceLocation BLOCKS = new ResourceLocation("minecraft", "block");
+
+    private Path dir;
+    private RegistrySnapshotCache cache;
+
+    @BeforeEach
+    public void setUp() throws IOException
+    {
+        dir = Files.createTempDirectory("registrycache");
+        cache = new RegistrySnapshotCache(dir);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException
+    {
+        try (Stream<Path> files = Files.walk(dir))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static ForgeRegistry.Snapshot snapshot(int entries)
+    {
+        ForgeRegistry.Snapshot snapshot = new ForgeRegistry.Snapshot();
+        for (int i = 0; i < entries; i++)
+            snapshot.ids.put(new ResourceLocation("test", "entry_" + i), i);
+        snapshot.aliases.put(new ResourceLocation("test", "old"), new ResourceLocation("test", "entry_0"));
+        snapshot.blocked.add(entries);
+        return snapshot;
+    }
+
+    private static byte[] bytes(ForgeRegistry.Snapshot snapshot)
+    {
+        ByteBuf data = snapshot.getPacketData();
+        byte[] ret = new byte[data.readableBytes()];
+        data.getBytes(data.readerIndex(), ret);
+        return ret;
+    }
+
+    private long entries() throws IOException
+    {
+        try (Stream<Path> files = Files.list(dir))
+        {
+            return files.filter(p -> p.getFileName().toString().endsWith(".bin")).count();
+        }
+    }
+
+    @Test
+    public void testStoredSnapshotsAreLoaded()
+    {
+        ForgeRegistry.Snapshot snapshot = snapshot(3);
+        cache.store(snapshot.getHash(), bytes(snapshot));
+
+        Map<ResourceLocation, ForgeRegistry.Snapshot> loaded = cache.load(ImmutableMap.of(BLOCKS, snapshot.getHash()));
+
+        assertEquals(1, loaded.size());
+        assertEquals(snapshot.ids, loaded.get(BLOCKS).ids);
+        assertEquals(snapshot.aliases, loaded.get(BLOCKS).aliases);
+        assertEquals(snapshot.blocked, loaded.get(BLOCKS).blocked);
+        assertEquals(snapshot.getHash(), loaded.get(BLOCKS).getHash(), "A loaded snapshot should hash like the one stored");
+    }
+
+    @Test
+    public void testMissingSnapshotsAreLeftOut()
+    {
+        assertTrue(cache.load(ImmutableMap.of(BLOCKS, snapshot(1).getHash())).isEmpty());
+    }
+
+    @Test
+    public void testDataNotMatchingItsHashIsNotStored() throws IOException
+    {
+        cache.store(snapshot(1).getHash(), bytes(snapshot(2)));
+        assertEquals(0, entries());
+    }
+
+    @Test
+    public void testInvalidHashesAreIgnored() throws IOException
+    {
+        ForgeRegistry.Snapshot snapshot = snapshot(1);
+        cache.store("../" + snapshot.getHash(), bytes(snapshot));
+        assertEquals(0, entries());
+        assertFalse(Files.exists(dir.getParent().resolve(snapshot.getHash() + ".bin")), "Hashes must not escape the cache directory");
+        assertTrue(cache.load(ImmutableMap.of(BLOCKS, "../" + snapshot.getHash())).isEmpty());
+    }
+
+    @Test
+    public void testCorruptEntriesAreDiscarded() throws IOException
+    {
+        ForgeRegistry.Snapshot snapshot = snapshot(1);
+        Path entry = dir.resolve(snapshot.getHash() + ".bin");
+        Files.write(entry, "corrupt".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(cache.load(ImmutableMap.of(BLOCKS, snapshot.getHash())).isEmpty());
+        assertFalse(Files.exists(entry), "A corrupt entry should be deleted");
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesArePruned() throws IOException
+    {
+        ForgeRegistry.Snapshot oldest = snapshot(0);
+        cache.store(oldest.getHash(), bytes(oldest));
+        Files.setLastModifiedTime(dir.resolve(oldest.getHash() + ".bin"), FileTime.fromMillis(0));
+        ForgeRegistry.Snapshot used = snapshot(1);
+        cache.store(used.getHash(), bytes(used));
+        Files.setLastModifiedTime(dir.resolve(used.getHash() + ".bin"), FileTime.fromMillis(0));
+        // Loading an entry marks it as used
+        cache.load(ImmutableMap.of(BLOCKS, used.getHash()));
+
+        for (int i = 2; i <= 256; i++)
+        {
+            ForgeRegistry.Snapshot snapshot = snapshot(i);
+            cache.store(snapshot.getHash(), bytes(snapshot));
+        }
+
+        assertEquals(256, entries(), "The cache should be pruned to its maximum size");
+        assertFalse(Files.exists(dir.resolve(oldest.getHash() + ".bin")), "The least recently used entry should be removed");
+        assertTrue(Files.exists(dir.resolve(used.getHash() + ".bin")), "An entry used recently should be kept");
+    }
+}
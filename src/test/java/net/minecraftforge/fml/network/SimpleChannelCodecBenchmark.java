@@ -0,0 +1,121 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.network;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.debug.Benchmark;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.network.simple.SimpleChannel;
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * Benchmarks encoding and decoding messages through a {@link SimpleChannel}'s indexed codec.
+ *
+ * This lives in the network package to dispatch payloads to a private channel instance the same way received
+ * packets are, without a connection. Run {@code /simple_channel_codec_benchmark} to check that messages are written
+ * in the discriminator and payload layout the codec always used and decoded back, then print the cost per message.
+ */
+@Mod(SimpleChannelCodecBenchmark.MODID)
+public class SimpleChannelCodecBenchmark
+{
+    public static final String MODID = "simple_channel_codec_benchmark";
+
+    private final NetworkInstance instance = new NetworkInstance(new ResourceLocation(MODID, "bench"), () -> "1", v -> true, v -> true);
+    private final SimpleChannel channel = new SimpleChannel(instance);
+    // The value of the last message received
+    private int received;
+
+    public SimpleChannelCodecBenchmark()
+    {
+        channel.registerMessage(0, Message.class, Message::encode, Message::decode, (m, c) -> received = m.value);
+        MinecraftForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+
+    private void registerCommands(RegisterCommandsEvent event)
+    {
+        event.getDispatcher().register(Commands.literal(MODID).requires(cs -> cs.hasPermissionLevel(2)).executes(ctx -> {
+            final CommandSource source = ctx.getSource();
+            final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+            final ICustomPacket<?> packet = NetworkDirection.PLAY_TO_SERVER.buildPacket(Pair.of(buffer, Integer.MIN_VALUE), instance.getChannelName());
+            Benchmark.check("encodeMessage", 1000, this::writeByHand, i -> {
+                buffer.clear();
+                channel.encodeMessage(new Message(i), buffer);
+                return buffer.copy();
+            });
+            Benchmark.check("dispatch", 1000, i -> i, i -> {
+                buffer.clear();
+                channel.encodeMessage(new Message(i), buffer);
+                return decode(packet, buffer);
+            });
+
+            final Message message = new Message(42);
+            Benchmark.report(source, "Encode", "message", i -> {
+                buffer.clear();
+                return channel.encodeMessage(message, buffer);
+            });
+            buffer.clear();
+            channel.encodeMessage(new Message(1), buffer);
+            Benchmark.report(source, "Decode", "message", i -> decode(packet, buffer));
+            return 0;
+        }));
+    }
+
+    private PacketBuffer writeByHand(int value)
+    {
+        final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        buffer.writeByte(0);
+        buffer.writeVarInt(value);
+        return buffer;
+    }
+
+    // Returns the value of the message received
+    private int decode(ICustomPacket<?> packet, PacketBuffer buffer)
+    {
+        buffer.readerIndex(0);
+        instance.dispatch(NetworkDirection.PLAY_TO_SERVER, packet, null);
+        return received;
+    }
+
+    private static class Message
+    {
+        private final int value;
+
+        private Message(int value)
+        {
+            this.value = value;
+        }
+
+        private void encode(PacketBuffer buffer)
+        {
+            buffer.writeVarInt(value);
+        }
+
+        private static Message decode(PacketBuffer buffer)
+        {
+            return new Message(buffer.readVarInt());
+        }
+    }
+}
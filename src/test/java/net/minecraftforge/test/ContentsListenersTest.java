@@ -0,0 +1,140 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.test;
+
+import net.minecraftforge.common.util.ContentsListeners;
+import net.minecraftforge.common.util.IContentsListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentsListenersTest
+{
+    private static BitSet bits(int... indices)
+    {
+        BitSet ret = new BitSet();
+        for (int index : indices)
+            ret.set(index);
+        return ret;
+    }
+
+    private static IContentsListener recorder(List<BitSet> deliveries)
+    {
+        return changed -> deliveries.add((BitSet)changed.clone());
+    }
+
+    @Test
+    public void testChangesOutsideBatchAreDeliveredRightAway()
+    {
+        ContentsListeners listeners = new ContentsListeners();
+        List<BitSet> deliveries = new ArrayList<>();
+        listeners.addContentsListener(recorder(deliveries));
+
+        listeners.changed(2);
+        listeners.changed(4, 6);
+
+        assertEquals(2, deliveries.size(), "Each change outside of a batch should be delivered on its own");
+        assertEquals(bits(2), deliveries.get(0));
+        assertEquals(bits(4, 5), deliveries.get(1), "The range end should be exclusive");
+    }
+
+    @Test
+    public void testNestedBatchesDeliverOnceAtTheOutermostEnd()
+    {
+        ContentsListeners listeners = new ContentsListeners();
+        List<BitSet> deliveries = new ArrayList<>();
+        listeners.addContentsListener(recorder(deliveries));
+
+        listeners.beginBatch();
+        listeners.changed(1);
+        listeners.beginBatch();
+        listeners.changed(3);
+        listeners.changed(1);
+        listeners.endBatch();
+        assertTrue(deliveries.isEmpty(), "Ending an inner batch should not deliver anything");
+        listeners.changed(7);
+        listeners.endBatch();
+
+        assertEquals(1, deliveries.size(), "A batch should be delivered once");
+        assertEquals(bits(1, 3, 7), deliveries.get(0));
+
+        listeners.beginBatch();
+        listeners.endBatch();
+        assertEquals(1, deliveries.size(), "An empty batch should not be delivered");
+    }
+
+    @Test
+    public void testChangesByListenersAreDeliveredAfterwards()
+    {
+        ContentsListeners listeners = new ContentsListeners();
+        List<BitSet> deliveries = new ArrayList<>();
+        int[] depth = new int[1];
+        listeners.addContentsListener(changed -> {
+            assertEquals(0, depth[0]++, "Listeners should not be called re-entrantly");
+            deliveries.add((BitSet)changed.clone());
+            if (changed.get(0))
+                listeners.changed(5);
+            depth[0]--;
+        });
+
+        listeners.changed(0);
+
+        assertEquals(2, deliveries.size(), "The listener's own change should be delivered in a second round");
+        assertEquals(bits(0), deliveries.get(0));
+        assertEquals(bits(5), deliveries.get(1));
+    }
+
+    @Test
+    public void testRemovingListenerDuringDelivery()
+    {
+        ContentsListeners listeners = new ContentsListeners();
+        List<BitSet> removed = new ArrayList<>();
+        List<BitSet> kept = new ArrayList<>();
+        IContentsListener removedListener = recorder(removed);
+        listeners.addContentsListener(changed -> listeners.removeContentsListener(removedListener));
+        listeners.addContentsListener(removedListener);
+        listeners.addContentsListener(recorder(kept));
+
+        listeners.changed(0);
+        listeners.changed(1);
+
+        assertEquals(1, removed.size(), "A listener removed during a delivery should still get that delivery, but no later ones");
+        assertEquals(bits(0), removed.get(0));
+        assertEquals(2, kept.size(), "Removing a listener should not affect the others");
+    }
+
+    @Test
+    public void testChangesWithoutListenersAreDropped()
+    {
+        ContentsListeners listeners = new ContentsListeners();
+        listeners.changed(3);
+        List<BitSet> deliveries = new ArrayList<>();
+        listeners.addContentsListener(recorder(deliveries));
+
+        listeners.changed(1);
+
+        assertEquals(1, deliveries.size());
+        assertEquals(bits(1), deliveries.get(0), "Changes made before any listener was added should not be delivered later");
+    }
+}
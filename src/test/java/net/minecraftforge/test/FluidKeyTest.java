@@ -0,0 +1,121 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.test;
+
+import net.minecraft.fluid.Fluids;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.util.registry.Bootstrap;
+import net.minecraftforge.fluids.FluidKey;
+import net.minecraftforge.fluids.FluidStack;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FluidKeyTest
+{
+    @BeforeAll
+    public static void bootstrap()
+    {
+        Bootstrap.register();
+    }
+
+    private static FluidStack water(String value)
+    {
+        CompoundNBT tag = new CompoundNBT();
+        tag.putString("value", value);
+        return new FluidStack(Fluids.WATER, 1000, tag);
+    }
+
+    @Test
+    public void testKeysAreInterned()
+    {
+        assertSame(water("a").getKey(), water("a").getKey(), "Stacks of the same fluid and tag should share their key");
+        assertNotSame(water("a").getKey(), water("b").getKey());
+        assertNotSame(water("a").getKey(), new FluidStack(Fluids.LAVA, 1000, water("a").getTag()).getKey(), "Keys should tell fluids apart");
+        assertSame(new FluidStack(Fluids.WATER, 1).getKey(), new FluidStack(Fluids.WATER, 1000).getKey());
+    }
+
+    @Test
+    public void testKeyDoesNotFollowTheTagItWasMadeFrom()
+    {
+        CompoundNBT tag = new CompoundNBT();
+        tag.putString("value", "a");
+        FluidKey key = FluidKey.of(Fluids.WATER, tag);
+        tag.putString("value", "b");
+        assertSame(key, water("a").getKey(), "The key should hold a copy of the tag");
+    }
+
+    @Test
+    public void testAccessingTheTagInvalidatesTheKey()
+    {
+        FluidStack stack = water("a");
+        FluidKey before = stack.getKey();
+        assertSame(before, stack.getKey(), "The key should be cached");
+
+        stack.getTag().putString("value", "b");
+        assertSame(water("b").getKey(), stack.getKey(), "Changing the tag handed out by the stack should invalidate its key");
+
+        stack.getOrCreateTag().putString("value", "c");
+        assertSame(water("c").getKey(), stack.getKey());
+
+        stack.getOrCreateChildTag("child").putString("value", "d");
+        assertNotSame(water("c").getKey(), stack.getKey());
+
+        stack.removeChildTag("child");
+        assertSame(water("c").getKey(), stack.getKey());
+
+        stack.setTag(null);
+        assertSame(new FluidStack(Fluids.WATER, 1).getKey(), stack.getKey());
+    }
+
+    @Test
+    public void testCopiesShareTheKeyButNotTheTag()
+    {
+        FluidStack stack = water("a");
+        FluidKey key = stack.getKey();
+        FluidStack copy = stack.copy();
+        assertSame(key, copy.getKey());
+        assertSame(key, new FluidStack(stack, 5).getKey());
+
+        copy.getTag().putString("value", "b");
+        assertSame(key, stack.getKey(), "Changing the copy should not affect the original");
+        assertSame(water("b").getKey(), copy.getKey());
+    }
+
+    @Test
+    public void testFluidEquality()
+    {
+        FluidStack cached = water("a");
+        cached.getKey();
+        FluidStack uncached = water("a");
+        assertTrue(cached.isFluidEqual(uncached), "Stacks without a cached key should be compared by their tags");
+        assertFalse(cached.isFluidEqual(water("b")));
+
+        FluidStack other = water("a");
+        other.getKey();
+        assertTrue(cached.isFluidEqual(other));
+
+        other.getTag().putString("value", "b");
+        other.getKey();
+        assertFalse(cached.isFluidEqual(other), "Equality should follow changes to the tag");
+        assertFalse(cached.isFluidEqual(new FluidStack(Fluids.LAVA, 1000, cached.getTag())));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2020.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.test;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IndexedItemStackHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedItemStackHandlerTest
+{
+    private static final Item APPLE = new Item(new Item.Properties());
+    private static final Item STICK = new Item(new Item.Properties());
+
+    @Test
+    public void testIndexFollowsChangesThroughTheHandler()
+    {
+        IndexedItemStackHandler handler = new IndexedItemStackHandler(4);
+        assertTrue(handler.isEmpty());
+        assertEquals(0, handler.findEmptySlot(0));
+        assertEquals(-1, handler.findSlotWithItem(APPLE, 0));
+
+        handler.insertItem(1, new ItemStack(APPLE, 10), false);
+        handler.setStackInSlot(3, new ItemStack(STICK, 64));
+
+        assertFalse(handler.isEmpty());
+        assertEquals(1, handler.findSlotWithItem(APPLE, 0));
+        assertEquals(-1, handler.findSlotWithItem(APPLE, 2));
+        assertEquals(3, handler.findSlotWithItem(STICK, 0));
+        assertEquals(0, handler.findEmptySlot(0));
+        assertEquals(2, handler.findEmptySlot(1), "Occupied slots should be skipped");
+
+        handler.extractItem(1, 10, false);
+        assertEquals(-1, handler.findSlotWithItem(APPLE, 0), "An emptied slot should no longer hold the item");
+        assertEquals(1, handler.findEmptySlot(1), "An emptied slot should be empty again");
+    }
+
+    @Test
+    public void testIsFull()
+    {
+        IndexedItemStackHandler handler = new IndexedItemStackHandler(2);
+        handler.setStackInSlot(0, new ItemStack(STICK, 64));
+        handler.setStackInSlot(1, new ItemStack(STICK, 63));
+        assertFalse(handler.isFull(), "A slot below its limit should not count as full");
+
+        handler.insertItem(1, new ItemStack(STICK), false);
+        assertTrue(handler.isFull());
+
+        handler.extractItem(0, 1, false);
+        assertFalse(handler.isFull());
+    }
+
+    @Test
+    public void testStaleSlotsAreRepaired()
+    {
+        IndexedItemStackHandler handler = new IndexedItemStackHandler(3);
+        handler.setStackInSlot(0, new ItemStack(APPLE, 5));
+        handler.setStackInSlot(1, new ItemStack(APPLE, 5));
+        handler.setStackInSlot(2, new ItemStack(STICK, 5));
+
+        // Emptied behind the handler's back
+        handler.getStackInSlot(0).shrink(5);
+
+        assertEquals(1, handler.findSlotWithItem(APPLE, 0), "A slot emptied behind the handler's back should be skipped");
+        assertEquals(0, handler.findEmptySlot(0), "Finding the stale slot should have repaired it as empty");
+
+        ItemStack remainder = ItemHandlerHelper.insertItemStacked(handler, new ItemStack(STICK, 70), false);
+        assertTrue(remainder.isEmpty());
+        assertEquals(64, handler.getStackInSlot(2).getCount(), "Present stacks should be filled up first");
+        assertEquals(STICK, handler.getStackInSlot(0).getItem(), "The rest should go into the repaired empty slot");
+        assertEquals(11, handler.getStackInSlot(0).getCount());
+    }
+
+    @Test
+    public void testSubclassUpdatingTheIndex()
+    {
+        class DirectHandler extends IndexedItemStackHandler
+        {
+            DirectHandler()
+            {
+                super(2);
+            }
+
+            void putDirectly(int slot, ItemStack stack)
+            {
+                this.stacks.set(slot, stack);
+                updateSlotIndex(slot);
+            }
+        }
+        DirectHandler handler = new DirectHandler();
+        assertEquals(0, handler.findEmptySlot(0));
+
+        handler.putDirectly(0, new ItemStack(APPLE, 3));
+
+        assertEquals(0, handler.findSlotWithItem(APPLE, 0));
+        assertEquals(1, handler.findEmptySlot(0));
+    }
+
+    @Test
+    public void testReplacedStacksRebuildTheIndex()
+    {
+        IndexedItemStackHandler handler = new IndexedItemStackHandler(2);
+        handler.setStackInSlot(0, new ItemStack(APPLE));
+        assertEquals(0, handler.findSlotWithItem(APPLE, 0));
+
+        handler.setSize(3);
+
+        assertEquals(-1, handler.findSlotWithItem(APPLE, 0), "Resizing clears the handler");
+        assertEquals(0, handler.findEmptySlot(0));
+        assertTrue(handler.isEmpty());
+    }
+}